@@ -0,0 +1,78 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks matching identifier names against the acronyms of the types
+ * in the type name dataset, with an {@code AcronymIndex} and with a 
+ * comparison against every type.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class AcronymIndexBenchmark {
+
+    private String[] identifiers;
+    private TypeName[] typeNames;
+    private AcronymIndex index;
+    private int position;
+
+    @Setup
+    public void setUp() {
+        this.identifiers = Datasets.identifiers();
+        String[] typeNameStrings = Datasets.typeNames();
+        this.typeNames = new TypeName[ typeNameStrings.length ];
+        this.index = new AcronymIndex();
+        for ( int i = 0; i < typeNameStrings.length; i++ ) {
+            this.typeNames[ i ] = new TypeName( typeNameStrings[ i ] );
+            this.index.add( this.typeNames[ i ] );
+        }
+    }
+
+    private String nextIdentifier() {
+        if ( ++this.position == this.identifiers.length ) {
+            this.position = 0;
+        }
+        return this.identifiers[ this.position ];
+    }
+
+    @Benchmark
+    public int indexed() {
+        return this.index.candidates( nextIdentifier() ).size();
+    }
+
+    @Benchmark
+    public int nestedLoop() {
+        String identifier = nextIdentifier();
+        int count = 0;
+        for ( TypeName typeName : this.typeNames ) {
+            if ( identifier.equalsIgnoreCase( typeName.typeAcronym() ) ) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
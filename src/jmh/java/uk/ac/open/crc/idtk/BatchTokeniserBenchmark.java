@@ -0,0 +1,71 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks batch tokenisation of the whole identifier dataset, repeated
+ * to give enough work to spread across cores. Comparing 
+ * {@code sequential} with the parallel forms shows how well batch 
+ * tokenisation scales on the host.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+public class BatchTokeniserBenchmark {
+
+    private static final int REPEATS = 32;
+
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        String[] identifiers = Datasets.identifiers();
+        this.names = new String[ identifiers.length * REPEATS ];
+        for ( int i = 0; i < this.names.length; i++ ) {
+            this.names[ i ] = identifiers[ i % identifiers.length ];
+        }
+    }
+
+    @Benchmark
+    public List<List<String>> sequential() {
+        return StreamSupport.stream( SimpleNameTokeniser.spliterator( this.names ), false )
+                .collect( Collectors.toList() );
+    }
+
+    @Benchmark
+    public List<List<String>> splitAll() {
+        return SimpleNameTokeniser.splitAll( this.names );
+    }
+
+    @Benchmark
+    public List<List<String>> parallelSpliterator() {
+        return StreamSupport.stream( SimpleNameTokeniser.spliterator( this.names ), true )
+                .collect( Collectors.toList() );
+    }
+}
@@ -0,0 +1,62 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the benchmark datasets. The identifier names and type names were 
+ * taken from the public API of the OpenJDK class library. Type names are 
+ * given both fully qualified and with package names removed, as they 
+ * appear in source code.
+ */
+final class Datasets {
+
+    static String[] identifiers() {
+        return load( "/identifiers.txt" );
+    }
+
+    static String[] typeNames() {
+        return load( "/typenames.txt" );
+    }
+
+    static String[] load( String resource ) {
+        InputStream inStream = Datasets.class.getResourceAsStream( resource );
+        if ( inStream == null ) {
+            throw new IllegalStateException( "missing dataset: " + resource );
+        }
+        try ( BufferedReader in = new BufferedReader( 
+                new InputStreamReader( inStream, StandardCharsets.UTF_8 ) ) ) {
+            List<String> lines = in.lines()
+                    .filter( line -> ! line.isEmpty() )
+                    .collect( Collectors.toList() );
+            return lines.toArray( new String[ lines.size() ] );
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private Datasets() {}
+}
@@ -0,0 +1,73 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the recovery of {@code Modifier} and {@code Species} members
+ * from their descriptions, cycling through every description. The 
+ * descriptions are copied so that lookups cannot succeed on identity.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class DescriptionLookupBenchmark {
+
+    private String[] modifierDescriptions;
+    private String[] speciesDescriptions;
+    private int modifierIndex;
+    private int speciesIndex;
+
+    @Setup
+    public void setUp() {
+        Modifier[] modifiers = Modifier.values();
+        this.modifierDescriptions = new String[ modifiers.length ];
+        for ( int i = 0; i < modifiers.length; i++ ) {
+            this.modifierDescriptions[ i ] = new String( modifiers[ i ].description() );
+        }
+
+        Species[] species = Species.values();
+        this.speciesDescriptions = new String[ species.length ];
+        for ( int i = 0; i < species.length; i++ ) {
+            this.speciesDescriptions[ i ] = new String( species[ i ].description() );
+        }
+    }
+
+    @Benchmark
+    public Modifier modifierLookup() {
+        if ( ++this.modifierIndex == this.modifierDescriptions.length ) {
+            this.modifierIndex = 0;
+        }
+        return Modifier.getModifierFor( this.modifierDescriptions[ this.modifierIndex ] );
+    }
+
+    @Benchmark
+    public Species speciesLookup() {
+        if ( ++this.speciesIndex == this.speciesDescriptions.length ) {
+            this.speciesIndex = 0;
+        }
+        return Species.getSpeciesFor( this.speciesDescriptions[ this.speciesIndex ] );
+    }
+}
@@ -0,0 +1,103 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks loading the built in dictionary, and a dictionary of 50,000
+ * entries made from tokens of the identifier dataset, from their text 
+ * and binary forms. Single shot times show the cost of loading in a 
+ * short lived process, before the code is compiled.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( { Mode.SingleShotTime, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class DictionaryLoadBenchmark {
+
+    private static final int ENTRIES = 50000;
+
+    private Path text;
+    private Path binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        Set<String> vocabulary = new LinkedHashSet<>();
+        for ( String name : Datasets.identifiers() ) {
+            for ( String token : SimpleNameTokeniser.split( name ) ) {
+                vocabulary.add( token.toLowerCase() );
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        String previous = "of";
+        for ( String token : vocabulary ) {
+            if ( lines.size() == ENTRIES ) {
+                break;
+            }
+            String entry = lines.size() % 5 == 4 ? previous + " " + token : token;
+            lines.add( entry + "," + entry.toUpperCase() + " " + token );
+            previous = token;
+        }
+
+        this.text = Files.createTempFile( "dictionary", ".txt" );
+        Files.write( this.text, lines, StandardCharsets.UTF_8 );
+        this.binary = Files.createTempFile( "dictionary", ".bin" );
+        DictionaryCompiler.compile( this.text, this.binary );
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists( this.text );
+        Files.deleteIfExists( this.binary );
+    }
+
+    @Benchmark
+    public ExpansionDictionary builtInText() throws IOException {
+        return ExpansionDictionary.fromResource( "/contractions.txt" );
+    }
+
+    @Benchmark
+    public ExpansionDictionary builtInBinary() throws IOException {
+        return ExpansionDictionary.fromResource( "/contractions.bin" );
+    }
+
+    @Benchmark
+    public ExpansionDictionary largeText() throws IOException {
+        return ExpansionDictionary.fromFile( this.text );
+    }
+
+    @Benchmark
+    public ExpansionDictionary largeBinary() throws IOException {
+        return ExpansionDictionary.fromFile( this.binary );
+    }
+}
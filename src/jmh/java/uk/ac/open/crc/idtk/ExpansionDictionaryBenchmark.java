@@ -0,0 +1,88 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the expansion of the token lists of the identifier dataset 
+ * with dictionaries of increasing size. The entries are tokens from the 
+ * dataset, so many names contain one, and every fifth entry is a phrase 
+ * of two tokens.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class ExpansionDictionaryBenchmark {
+
+    @Param( { "100", "10000", "50000" } )
+    private int entries;
+
+    private ExpansionDictionary dictionary;
+    private List<String>[] tokenLists;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        String[] names = Datasets.identifiers();
+        @SuppressWarnings( { "rawtypes", "unchecked" } )
+        List<String>[] tokenLists = new List[ names.length ];
+        this.tokenLists = tokenLists;
+        Set<String> vocabulary = new LinkedHashSet<>();
+        for ( int i = 0; i < names.length; i++ ) {
+            this.tokenLists[ i ] = SimpleNameTokeniser.split( names[ i ] ).stream()
+                    .map( String::toLowerCase )
+                    .collect( Collectors.toList() );
+            vocabulary.addAll( this.tokenLists[ i ] );
+        }
+
+        Map<String, List<String>> expansions = new LinkedHashMap<>();
+        String previous = "of";
+        for ( String token : vocabulary ) {
+            if ( expansions.size() == this.entries ) {
+                break;
+            }
+            String entry = expansions.size() % 5 == 4 ? previous + " " + token : token;
+            expansions.put( entry, Collections.singletonList( entry.toUpperCase() ) );
+            previous = token;
+        }
+        this.dictionary = ExpansionDictionary.of( expansions );
+    }
+
+    @Benchmark
+    public List<String> expand() {
+        if ( ++this.index == this.tokenLists.length ) {
+            this.index = 0;
+        }
+        return this.dictionary.expand( this.tokenLists[ this.index ] );
+    }
+}
@@ -0,0 +1,83 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks finding the types within a package among the type names of
+ * the type name dataset, with a {@code PackageTrie} and by testing the 
+ * package name of every type.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class PackageTrieBenchmark {
+
+    private static final String[] PACKAGES = {
+        "java.util", "java.awt.event", "javax.swing", "java.nio", "java.lang.invoke"
+    };
+
+    private PackageTrie trie;
+    private List<TypeName> typeNames;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        this.trie = new PackageTrie();
+        this.typeNames = new ArrayList<>();
+        for ( String typeName : Datasets.typeNames() ) {
+            this.typeNames.add( this.trie.add( new TypeName( typeName ) ) );
+        }
+    }
+
+    private String nextPackage() {
+        if ( ++this.index == PACKAGES.length ) {
+            this.index = 0;
+        }
+        return PACKAGES[ this.index ];
+    }
+
+    @Benchmark
+    public List<TypeName> trie() {
+        return this.trie.typesUnder( nextPackage() );
+    }
+
+    @Benchmark
+    public List<TypeName> scan() {
+        String packageName = nextPackage();
+        List<TypeName> found = new ArrayList<>();
+        for ( TypeName typeName : this.typeNames ) {
+            String candidate = typeName.packageName();
+            if ( candidate.startsWith( packageName ) 
+                    && ( candidate.length() == packageName.length() 
+                            || candidate.charAt( packageName.length() ) == '.' ) ) {
+                found.add( typeName );
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the scalar scan with block boundary detection when 
+ * tokenising the whole identifier dataset packed into a single buffer, 
+ * with an underscore between names.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+public class PackedBufferBenchmark {
+
+    private String packed;
+    private char[] buffer;
+    private final TokenSpans spans = new TokenSpans( 1 << 16 );
+
+    @Setup
+    public void setUp() {
+        this.packed = String.join( "_", Datasets.identifiers() );
+        this.buffer = this.packed.toCharArray();
+    }
+
+    @Benchmark
+    public int scalar() {
+        return SimpleNameTokeniser.splitOffsets( this.packed, this.spans );
+    }
+
+    @Benchmark
+    public int block() {
+        return SimpleNameTokeniser.splitOffsets( this.buffer, 0, this.buffer.length, this.spans );
+    }
+}
@@ -0,0 +1,126 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the processing of tokens by {@code Modals}, {@code SubTool}, 
+ * {@code PrefixTool} and {@code IdentifierNormaliser}. Token lists are 
+ * created from the identifier dataset in advance, so only the processing
+ * is measured. 
+ */
+@State( Scope.Thread )
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class TokenProcessingBenchmark {
+
+    private String[] names;
+    private List<String>[] tokenLists;
+    private int index;
+    private final TokenSpans spans = new TokenSpans();
+    private final StringBuilder buffer = new StringBuilder();
+    private int characters;
+    private final TokenSink sink = ( source, start, end ) -> this.characters += end - start;
+
+    private final IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+            .lowerCase( true )
+            .expandModals( true )
+            .subPolicy( SubTool.Policy.EXPAND )
+            .build();
+
+    @Setup
+    public void setUp() {
+        this.names = Datasets.identifiers();
+        @SuppressWarnings( { "rawtypes", "unchecked" } )
+        List<String>[] tokenLists = new List[ this.names.length ];
+        this.tokenLists = tokenLists;
+        for ( int i = 0; i < this.names.length; i++ ) {
+            this.tokenLists[ i ] = SimpleNameTokeniser.split( this.names[ i ] ).stream()
+                    .map( String::toLowerCase )
+                    .collect( Collectors.toList() );
+        }
+    }
+
+    private int next() {
+        if ( ++this.index == this.names.length ) {
+            this.index = 0;
+        }
+        return this.index;
+    }
+
+    @Benchmark
+    public List<String> modalsExpand() {
+        return Modals.expand( this.tokenLists[ next() ] );
+    }
+
+    @Benchmark
+    public int modalsSpanLookup() {
+        String name = this.names[ next() ];
+        int count = SimpleNameTokeniser.splitOffsets( name, this.spans );
+        int contractions = 0;
+        for ( int i = 0; i < count; i++ ) {
+            if ( Modals.isModalIgnoreCase( name, this.spans.start( i ), this.spans.end( i ) ) ) {
+                contractions++;
+            }
+        }
+        return contractions;
+    }
+
+    @Benchmark
+    public List<String> subToolExpand() {
+        return SubTool.process( this.tokenLists[ next() ], SubTool.Policy.EXPAND );
+    }
+
+    @Benchmark
+    public List<String> subToolConcatenate() {
+        return SubTool.process( this.tokenLists[ next() ], SubTool.Policy.CONCATENATE );
+    }
+
+    @Benchmark
+    public List<String> commonPrefixesExpand() {
+        return PrefixTool.COMMON.process( this.tokenLists[ next() ], SubTool.Policy.EXPAND );
+    }
+
+    @Benchmark
+    public List<String> manualNormalisationChain() {
+        List<String> tokens = SimpleNameTokeniser.split( this.names[ next() ] ).stream()
+                .map( String::toLowerCase )
+                .collect( Collectors.toList() );
+        return SubTool.process( Modals.expand( tokens ), SubTool.Policy.EXPAND );
+    }
+
+    @Benchmark
+    public List<String> fusedNormalisation() {
+        return this.normaliser.normalise( this.names[ next() ] );
+    }
+
+    @Benchmark
+    public int fusedNormalisationToSink() {
+        this.normaliser.normalise( this.names[ next() ], this.buffer, this.sink );
+        return this.characters;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the forms of {@code SimpleNameTokeniser}. Each operation 
+ * tokenises the next name from the identifier dataset.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class TokeniserBenchmark {
+
+    private String[] names;
+    private int index;
+
+    private final TokenSpans spans = new TokenSpans();
+    private final int[] offsets = new int[ 64 ];
+    private final TokenDictionary dictionary = new TokenDictionary();
+    private int checksum;
+    private final TokenSink sink = ( source, start, end ) -> this.checksum += end - start;
+
+    @Setup
+    public void setUp() {
+        this.names = Datasets.identifiers();
+        // populate the dictionary so that the benchmark measures lookups
+        for ( String name : this.names ) {
+            SimpleNameTokeniser.splitToIds( name, this.dictionary );
+        }
+    }
+
+    private String nextName() {
+        if ( ++this.index == this.names.length ) {
+            this.index = 0;
+        }
+        return this.names[ this.index ];
+    }
+
+    @Benchmark
+    public List<String> split() {
+        return SimpleNameTokeniser.split( nextName() );
+    }
+
+    @Benchmark
+    public TokenSpans splitOffsetsToSpans() {
+        SimpleNameTokeniser.splitOffsets( nextName(), this.spans );
+        return this.spans;
+    }
+
+    @Benchmark
+    public int splitOffsetsToArray() {
+        return SimpleNameTokeniser.splitOffsets( nextName(), this.offsets );
+    }
+
+    @Benchmark
+    public int splitToSink() {
+        SimpleNameTokeniser.split( nextName(), this.sink );
+        return this.checksum;
+    }
+
+    @Benchmark
+    public int splitToIds() {
+        return SimpleNameTokeniser.splitToIds( nextName(), this.dictionary, this.offsets );
+    }
+}
@@ -0,0 +1,197 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the creation of {@code TypeName} instances. Each operation 
+ * parses the next type name from the type name dataset.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class TypeNameBenchmark {
+
+    private String[] typeNames;
+    private TypeName[] parsedTypeNames;
+    private String[] signatures;
+    private Type[] reflectedTypes;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        this.typeNames = Datasets.typeNames();
+        this.parsedTypeNames = new TypeName[ this.typeNames.length ];
+        for ( int i = 0; i < this.typeNames.length; i++ ) {
+            this.parsedTypeNames[ i ] = new TypeName( this.typeNames[ i ] );
+        }
+        this.signatures = new String[ this.typeNames.length ];
+        for ( int i = 0; i < this.typeNames.length; i++ ) {
+            this.signatures[ i ] = signature( this.parsedTypeNames[ i ] );
+        }
+        this.reflectedTypes = reflectedTypes( Collections.class, Collectors.class );
+    }
+
+    // the generic parameter and return types of the methods of classes
+    private static Type[] reflectedTypes( Class<?>... classes ) {
+        List<Type> types = new ArrayList<>();
+        for ( Class<?> type : classes ) {
+            for ( Method method : type.getMethods() ) {
+                types.add( method.getGenericReturnType() );
+                Collections.addAll( types, method.getGenericParameterTypes() );
+            }
+        }
+        return types.toArray( new Type[ types.size() ] );
+    }
+
+    private Type nextReflectedType() {
+        if ( ++this.index >= this.reflectedTypes.length ) {
+            this.index = 0;
+        }
+        return this.reflectedTypes[ this.index ];
+    }
+
+    // writes the type name as a class file signature would hold it
+    private static String signature( TypeName typeName ) {
+        StringBuilder signature = new StringBuilder();
+        for ( int i = 0; i < typeName.arrayDimensions(); i++ ) {
+            signature.append( '[' );
+        }
+        int primitive = "byte char double float int long short boolean"
+                .indexOf( typeName.identifierName() );
+        if ( primitive >= 0 && typeName.fqn().isEmpty() ) {
+            return signature.append( Character.toUpperCase( 
+                    typeName.identifierName().equals( "boolean" ) ? 'z' 
+                    : typeName.identifierName().equals( "long" ) ? 'j' 
+                    : typeName.identifierName().charAt( 0 ) ) ).toString();
+        }
+        signature.append( 'L' );
+        if ( typeName.fqn().isEmpty() ) {
+            signature.append( typeName.identifierName() );
+        }
+        else {
+            String packageName = typeName.packageName();
+            signature.append( packageName.replace( '.', '/' ) ).append( '/' )
+                    .append( typeName.fqn().substring( packageName.length() + 1 ).replace( '.', '$' ) );
+        }
+        if ( typeName.parameterCount() > 0 ) {
+            signature.append( '<' );
+            for ( TypeName parameter : typeName.parameterisedTypesView() ) {
+                signature.append( signature( parameter ) );
+            }
+            signature.append( '>' );
+        }
+        return signature.append( ';' ).toString();
+    }
+
+    private String nextSignature() {
+        if ( ++this.index == this.signatures.length ) {
+            this.index = 0;
+        }
+        return this.signatures[ this.index ];
+    }
+
+    private String nextTypeName() {
+        if ( ++this.index == this.typeNames.length ) {
+            this.index = 0;
+        }
+        return this.typeNames[ this.index ];
+    }
+
+    private TypeName nextParsedTypeName() {
+        if ( ++this.index == this.parsedTypeNames.length ) {
+            this.index = 0;
+        }
+        return this.parsedTypeNames[ this.index ];
+    }
+
+    @Benchmark
+    public TypeName parse() {
+        return new TypeName( nextTypeName() );
+    }
+
+    @Benchmark
+    public TypeName canonical() {
+        return TypeName.of( nextTypeName() );
+    }
+
+    @Benchmark
+    public String lazyIdentifierName() {
+        return TypeName.lazy( nextTypeName() ).identifierName();
+    }
+
+    @Benchmark
+    public String lazyAcronym() {
+        return TypeName.lazy( nextTypeName() ).typeAcronym();
+    }
+
+    @Benchmark
+    public int walkCopying() {
+        return countByCopying( nextParsedTypeName() );
+    }
+
+    private static int countByCopying( TypeName typeName ) {
+        int count = 1;
+        for ( TypeName parameter : typeName.parameterisedTypes() ) {
+            count += countByCopying( parameter );
+        }
+        return count;
+    }
+
+    private int visitCount;
+
+    private final TypeNameVisitor counter = ( typeName, depth ) -> {
+        this.visitCount++;
+        return true;
+    };
+
+    @Benchmark
+    public int walkVisitor() {
+        this.visitCount = 0;
+        nextParsedTypeName().accept( this.counter );
+        return this.visitCount;
+    }
+
+    @Benchmark
+    public TypeName fromSignature() {
+        return TypeName.fromSignature( nextSignature() );
+    }
+
+    @Benchmark
+    public TypeName fromType() {
+        return TypeName.from( nextReflectedType() );
+    }
+
+    @Benchmark
+    public TypeName fromTypeName() {
+        return new TypeName( nextReflectedType().getTypeName() );
+    }
+}
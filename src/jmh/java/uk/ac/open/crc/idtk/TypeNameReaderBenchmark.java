@@ -0,0 +1,80 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks parsing a file of type names, made by repeating the type 
+ * name dataset, one line at a time on one thread and with 
+ * {@code TypeNameReader}.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+public class TypeNameReaderBenchmark {
+
+    private static final int REPEATS = 40;
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> lines = new ArrayList<>();
+        String[] typeNames = Datasets.typeNames();
+        for ( int i = 0; i < REPEATS; i++ ) {
+            for ( String typeName : typeNames ) {
+                lines.add( typeName );
+            }
+        }
+        this.file = Files.createTempFile( "typenames", ".txt" );
+        Files.write( this.file, lines, StandardCharsets.UTF_8 );
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists( this.file );
+    }
+
+    @Benchmark
+    public List<TypeName> lineByLine() throws IOException {
+        List<TypeName> typeNames = new ArrayList<>();
+        for ( String line : Files.readAllLines( this.file, StandardCharsets.UTF_8 ) ) {
+            typeNames.add( new TypeName( line ) );
+        }
+        return typeNames;
+    }
+
+    @Benchmark
+    public List<TypeName> reader() throws IOException {
+        return TypeNameReader.readAll( this.file );
+    }
+}
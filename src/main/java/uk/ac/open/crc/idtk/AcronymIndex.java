@@ -0,0 +1,201 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds the types whose acronyms match identifier names, e.g. 
+ * {@code StringBuilder} for {@code sb}, without comparing each name 
+ * with every type. 
+ * 
+ * <p>
+ * Each distinct acronym is given a dense {@code int} identifier by a 
+ * {@link TokenDictionary}, which indexes the types with that acronym. 
+ * A name is matched by looking up its lower case form in 
+ * {@link Locale#ROOT}, as acronyms are made, so a query costs the same 
+ * however many types are held, and creates no objects for ASCII names. 
+ * Names match when the whole name, ignoring case, is the acronym of the 
+ * type.
+ * </p>
+ * 
+ * <p>
+ * Types may be added at any time. Instances are not thread safe.
+ * </p>
+ */
+public final class AcronymIndex {
+
+    /** Value returned by lookups for names that match no acronym. */
+    public static final int NOT_FOUND = TokenDictionary.NOT_FOUND;
+
+    private final TokenDictionary acronyms = new TokenDictionary();
+    // the types with each acronym, indexed by acronym id
+    private final List<List<TypeName>> types = new ArrayList<>();
+    // unmodifiable views of the lists of types
+    private final List<List<TypeName>> views = new ArrayList<>();
+    private int size;
+
+    // holds the lower case form of names being looked up
+    private final StringBuilder lowerCaseName = new StringBuilder();
+
+    /**
+     * Adds a type. A type that is equal to one already added, or that has
+     * no acronym, is ignored.
+     * @param typeName a type name
+     * @return {@code true} if the type was added
+     */
+    public boolean add( TypeName typeName ) {
+        String acronym = typeName.typeAcronym();
+        if ( acronym == null || acronym.isEmpty() ) {
+            return false;
+        }
+
+        // an equal type can only be held with the same acronym
+        int id = this.acronyms.lookup( acronym );
+        if ( id != NOT_FOUND && this.types.get( id ).contains( typeName ) ) {
+            return false;
+        }
+        if ( id == NOT_FOUND ) {
+            id = this.acronyms.intern( acronym );
+        }
+        if ( id == this.types.size() ) {
+            List<TypeName> typesWithAcronym = new ArrayList<>( 1 );
+            this.types.add( typesWithAcronym );
+            this.views.add( Collections.unmodifiableList( typesWithAcronym ) );
+        }
+        this.types.get( id ).add( typeName );
+        this.size++;
+        return true;
+    }
+
+    /**
+     * Adds several types.
+     * @param typeNames type names
+     * @return the number of types added
+     * @see #add(TypeName)
+     */
+    public int addAll( Iterable<TypeName> typeNames ) {
+        int count = 0;
+        for ( TypeName typeName : typeNames ) {
+            if ( add( typeName ) ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the acronym that matches a name.
+     * @param name an identifier name
+     * @return the identifier of the acronym, or {@link #NOT_FOUND}
+     */
+    public int acronymId( CharSequence name ) {
+        this.lowerCaseName.setLength( 0 );
+        for ( int i = 0; i < name.length(); i++ ) {
+            char c = name.charAt( i );
+            if ( c >= 128 ) {
+                // a few characters do not convert one for one
+                return this.acronyms.lookup( name.toString().toLowerCase( Locale.ROOT ) );
+            }
+            this.lowerCaseName.append( c >= 'A' && c <= 'Z' ? (char) ( c + ( 'a' - 'A' ) ) : c );
+        }
+        return this.acronyms.lookup( this.lowerCaseName );
+    }
+
+    /**
+     * Finds the acronyms that match each of a list of names.
+     * @param names identifier names
+     * @return the identifier of the acronym matched by each name, or 
+     * {@link #NOT_FOUND}, in the order of the names
+     */
+    public int[] acronymIds( List<? extends CharSequence> names ) {
+        int[] ids = new int[ names.size() ];
+        for ( int i = 0; i < ids.length; i++ ) {
+            ids[ i ] = acronymId( names.get( i ) );
+        }
+        return ids;
+    }
+
+    /**
+     * Retrieves the types with an acronym.
+     * @param acronymId the identifier of an acronym
+     * @return an unmodifiable list of type names, in the order they were
+     * added, which is empty for {@link #NOT_FOUND}. The list is a view, 
+     * so includes types added later
+     * @throws IndexOutOfBoundsException if {@code acronymId} is neither an
+     * acronym identifier nor {@link #NOT_FOUND}
+     */
+    public List<TypeName> types( int acronymId ) {
+        if ( acronymId == NOT_FOUND ) {
+            return Collections.emptyList();
+        }
+        return this.views.get( acronymId );
+    }
+
+    /**
+     * Finds the types whose acronym matches a name.
+     * @param name an identifier name
+     * @return an unmodifiable list of type names, which is empty if there
+     * are none
+     */
+    public List<TypeName> candidates( CharSequence name ) {
+        return types( acronymId( name ) );
+    }
+
+    /**
+     * Finds the types whose acronyms match each of a list of names.
+     * @param names identifier names
+     * @return the types matched by each name, in the order of the names
+     */
+    public List<List<TypeName>> candidates( List<? extends CharSequence> names ) {
+        List<List<TypeName>> candidates = new ArrayList<>( names.size() );
+        for ( CharSequence name : names ) {
+            candidates.add( candidates( name ) );
+        }
+        return candidates;
+    }
+
+    /**
+     * Retrieves an acronym.
+     * @param acronymId the identifier of an acronym
+     * @return the acronym
+     * @throws IndexOutOfBoundsException if {@code acronymId} is not an 
+     * acronym identifier
+     */
+    public String acronym( int acronymId ) {
+        return this.acronyms.token( acronymId );
+    }
+
+    /**
+     * Reports the number of distinct acronyms held.
+     * @return a count of acronyms
+     */
+    public int acronymCount() {
+        return this.acronyms.size();
+    }
+
+    /**
+     * Reports the number of types held.
+     * @return a count of types
+     */
+    public int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.nio.CharBuffer;
+
+/**
+ * Finds token boundaries in buffers of characters 64 at a time. Each 
+ * block of characters is classified into bit masks of separators, lower 
+ * case and upper case letters, and the token boundaries for the whole 
+ * block are then found with a few shifts and logical operations on the 
+ * masks. Only the boundaries themselves are visited individually.
+ * 
+ * <p>
+ * The masks are built four characters at a time: the characters are 
+ * packed into the 16 bit lanes of a {@code long}, every lane is compared 
+ * with the bounds of each class at once by adding a bias that carries 
+ * into bit 7 of the lane, and the four result bits are gathered into 
+ * adjacent bits with a single multiplication.
+ * </p>
+ * 
+ * <p>
+ * The masks are only computed for ASCII characters. If a block contains 
+ * any other character, the rest of the buffer is tokenised by the scalar 
+ * scan in {@link SimpleNameTokeniser#nextToken(CharSequence, int)}, which
+ * gives the same result.
+ * </p>
+ */
+final class BoundaryDetector {
+
+    private static final int BLOCK_SIZE = 64;
+
+    // bit 7 of each 16 bit lane
+    private static final long LANE_HIGH_BITS = 0x0080_0080_0080_0080L;
+    // any bit of a lane that is set by a character of 128 or more
+    private static final long NON_ASCII_BITS = 0xff80_ff80_ff80_ff80L;
+    // moves bit 0 of lanes 0 to 3 to bits 48 to 51
+    private static final long GATHER = ( 1L << 48 ) | ( 1L << 33 ) | ( 1L << 18 ) | ( 1L << 3 );
+
+    // adding these to a lane holding c < 128 sets bit 7 if c >= bound
+    private static final long AT_LEAST_LOWER_A = lanes( 0x80 - 'a' );
+    private static final long AT_LEAST_AFTER_LOWER_Z = lanes( 0x80 - ( 'z' + 1 ) );
+    private static final long AT_LEAST_UPPER_A = lanes( 0x80 - 'A' );
+    private static final long AT_LEAST_AFTER_UPPER_Z = lanes( 0x80 - ( 'Z' + 1 ) );
+    private static final long UNDERSCORES = lanes( '_' );
+    private static final long DOLLARS = lanes( '$' );
+    // adding this to a lane holding c < 128 sets bit 7 if c != 0
+    private static final long NON_ZERO = lanes( 0x7f );
+
+    /**
+     * Records the boundaries of the tokens in a region of a buffer, which
+     * is tokenised as a single name.
+     * @param buffer a buffer of characters
+     * @param from the index of the first character of the region
+     * @param to the index following the last character of the region
+     * @param spans the holder the token boundaries are added to
+     */
+    static void split( char[] buffer, int from, int to, TokenSpans spans ) {
+        int tokenStart = -1;
+        // state carried from the last character of the previous block
+        long separatorCarry = 1L;
+        long lowerCarry = 0L;
+
+        for ( int block = from; block < to; block += BLOCK_SIZE ) {
+            int length = Math.min( BLOCK_SIZE, to - block );
+            long lower = 0L;
+            long upper = 0L;
+            long separators = 0L;
+            long allCharacters = 0L;
+
+            for ( int i = 0; i < length; i += 4 ) {
+                int index = block + i;
+                // lanes past the end of the region hold zero, which is in
+                // no class
+                long word = length - i >= 4 
+                        ? buffer[ index ] 
+                                | (long) buffer[ index + 1 ] << 16 
+                                | (long) buffer[ index + 2 ] << 32 
+                                | (long) buffer[ index + 3 ] << 48
+                        : pack( buffer, index, length - i );
+                allCharacters |= word;
+
+                // the lanes are only meaningful if every character is 
+                // ASCII, as checked below, so no lane carries into the next
+                lower |= gather( ( word + AT_LEAST_LOWER_A ) 
+                        & ~( word + AT_LEAST_AFTER_LOWER_Z ) ) << i;
+                upper |= gather( ( word + AT_LEAST_UPPER_A ) 
+                        & ~( word + AT_LEAST_AFTER_UPPER_Z ) ) << i;
+                separators |= gather( ~( ( word ^ UNDERSCORES ) + NON_ZERO ) 
+                        | ~( ( word ^ DOLLARS ) + NON_ZERO ) ) << i;
+            }
+
+            if ( ( allCharacters & NON_ASCII_BITS ) != 0L ) {
+                scalarSplit( buffer, tokenStart < 0 ? block : tokenStart, to, spans );
+                return;
+            }
+
+            long valid = length == BLOCK_SIZE ? -1L : ( 1L << length ) - 1;
+            long tokenCharacters = ~separators & valid;
+            long caseBoundaries = upper & ( ( lower << 1 ) | lowerCarry );
+            // a case boundary both ends one token and starts the next
+            long starts = ( tokenCharacters & ( ( separators << 1 ) | separatorCarry ) ) 
+                    | caseBoundaries;
+            long ends = ( separators & ( ( tokenCharacters << 1 ) | ( separatorCarry ^ 1L ) ) ) 
+                    | caseBoundaries;
+
+            // starts and ends alternate, so each start pairs with the 
+            // next end, and a token left open by the previous block is 
+            // closed by the first end
+            if ( tokenStart >= 0 && ends != 0L ) {
+                spans.add( tokenStart, block + Long.numberOfTrailingZeros( ends ) );
+                ends &= ends - 1;
+                tokenStart = -1;
+            }
+            while ( starts != 0L ) {
+                int start = block + Long.numberOfTrailingZeros( starts );
+                starts &= starts - 1;
+                if ( ends == 0L ) {
+                    tokenStart = start;
+                    break;
+                }
+                spans.add( start, block + Long.numberOfTrailingZeros( ends ) );
+                ends &= ends - 1;
+            }
+
+            separatorCarry = ( separators >>> ( length - 1 ) ) & 1L;
+            lowerCarry = ( lower >>> ( length - 1 ) ) & 1L;
+        }
+
+        if ( tokenStart >= 0 ) {
+            spans.add( tokenStart, to );
+        }
+    }
+
+    // packs fewer than four characters into the low lanes of a long
+    private static long pack( char[] buffer, int index, int count ) {
+        long word = 0L;
+        for ( int i = 0; i < count; i++ ) {
+            word |= (long) buffer[ index + i ] << ( 16 * i );
+        }
+        return word;
+    }
+
+    // collects bit 7 of each lane into bits 0 to 3
+    private static long gather( long laneBits ) {
+        return ( ( ( laneBits & LANE_HIGH_BITS ) >>> 7 ) * GATHER ) >>> 48;
+    }
+
+    // repeats a value in each 16 bit lane
+    private static long lanes( int value ) {
+        return value * 0x0001_0001_0001_0001L;
+    }
+
+    private static void scalarSplit( char[] buffer, int from, int to, TokenSpans spans ) {
+        // offsets into the wrapped buffer are offsets into the array
+        CharBuffer name = CharBuffer.wrap( buffer, 0, to );
+        int position = from;
+        long span;
+
+        while ( ( span = SimpleNameTokeniser.nextToken( name, position ) ) 
+                != SimpleNameTokeniser.NO_TOKEN ) {
+            position = SimpleNameTokeniser.tokenEnd( span );
+            spans.add( SimpleNameTokeniser.tokenStart( span ), position );
+        }
+    }
+
+    private BoundaryDetector() {}
+}
@@ -0,0 +1,240 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A thread safe cache holding a bounded number of entries. 
+ * 
+ * <p>
+ * The cache is split into independently locked segments chosen by key 
+ * hash. Each segment uses a segmented LRU policy: new entries are placed 
+ * in a probationary area and are only promoted to the protected area when 
+ * they are found again. Entries are evicted from the probationary area 
+ * first, so a scan over many names that are each seen once cannot flush 
+ * the frequently used names from the cache.
+ * </p>
+ * 
+ * <p>
+ * Values are computed outside the segment locks, so two threads that miss
+ * on the same key at the same time may both compute a value. The first
+ * value stored is kept and returned to both threads.
+ * </p>
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+final class BoundedCache<K, V> {
+
+    private static final int MAXIMUM_SEGMENTS = 64;
+    private static final int MINIMUM_SEGMENT_SIZE = 16;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final long maximumSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     * @param maximumSize the maximum number of entries held
+     * @throws IllegalArgumentException if {@code maximumSize} is less than 1
+     */
+    BoundedCache( int maximumSize ) {
+        if ( maximumSize < 1 ) {
+            throw new IllegalArgumentException( 
+                    "cache size must be at least 1: " + maximumSize );
+        }
+
+        int segmentCount = 1;
+        while ( segmentCount < MAXIMUM_SEGMENTS 
+                && segmentCount < Runtime.getRuntime().availableProcessors() * 2
+                && maximumSize / ( segmentCount * 2 ) >= MINIMUM_SEGMENT_SIZE ) {
+            segmentCount *= 2;
+        }
+
+        @SuppressWarnings( { "rawtypes", "unchecked" } )
+        Segment<K, V>[] segments = new Segment[ segmentCount ];
+        this.segments = segments;
+        int remainder = maximumSize % segmentCount;
+        for ( int i = 0; i < segmentCount; i++ ) {
+            int capacity = maximumSize / segmentCount + ( i < remainder ? 1 : 0 );
+            this.segments[ i ] = new Segment<>( capacity );
+        }
+        this.segmentMask = segmentCount - 1;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Retrieves a cached value, computing and caching it if absent.
+     * @param key a key
+     * @param loader computes the value for a key that is not cached
+     * @return the cached value
+     */
+    V get( K key, Function<? super K, ? extends V> loader ) {
+        V value = getIfPresent( key );
+        if ( value == null ) {
+            value = putIfAbsent( key, loader.apply( key ) );
+        }
+        return value;
+    }
+
+    /**
+     * Retrieves a cached value.
+     * @param key a key
+     * @return the value, or {@code null} if the key is not cached
+     */
+    V getIfPresent( K key ) {
+        V value = segmentFor( key ).get( key );
+        if ( value == null ) {
+            this.misses.increment();
+        }
+        else {
+            this.hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Caches a value unless a value is already cached for the key.
+     * @param key a key
+     * @param value the value to cache
+     * @return the value now cached for the key
+     */
+    V putIfAbsent( K key, V value ) {
+        return segmentFor( key ).putIfAbsent( key, value, this.evictions );
+    }
+
+    /**
+     * Reports the number of entries currently held.
+     * @return a count of entries
+     */
+    long size() {
+        long size = 0;
+        for ( Segment<K, V> segment : this.segments ) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Discards all entries. The statistics are not reset.
+     */
+    void clear() {
+        for ( Segment<K, V> segment : this.segments ) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the cache statistics.
+     * @return the statistics
+     */
+    CacheStatistics statistics() {
+        return new CacheStatistics( 
+                this.hits.sum(), 
+                this.misses.sum(), 
+                this.evictions.sum(), 
+                size(), 
+                this.maximumSize );
+    }
+
+    private Segment<K, V> segmentFor( K key ) {
+        int hash = key.hashCode();
+        hash ^= ( hash >>> 16 );
+        hash *= 0x9e3779b9;
+        return this.segments[ ( hash >>> 16 ) & this.segmentMask ];
+    }
+
+    private static final class Segment<K, V> {
+        private final int capacity;
+        private final int protectedCapacity;
+
+        // insertion order: the eldest entry is the next to be evicted
+        private final LinkedHashMap<K, V> probation = new LinkedHashMap<>();
+        // access order: the eldest entry is the least recently used
+        private final LinkedHashMap<K, V> protectedEntries = 
+                new LinkedHashMap<>( 16, 0.75f, true );
+
+        Segment( int capacity ) {
+            this.capacity = capacity;
+            // at least one place is left in probation for new entries, 
+            // which would otherwise be evicted as soon as they were added
+            this.protectedCapacity = Math.min( capacity - 1, Math.max( 1, capacity * 4 / 5 ) );
+        }
+
+        synchronized V get( K key ) {
+            V value = this.protectedEntries.get( key );
+            if ( value == null ) {
+                value = this.probation.remove( key );
+                if ( value != null ) {
+                    promote( key, value );
+                }
+            }
+            return value;
+        }
+
+        synchronized V putIfAbsent( K key, V value, LongAdder evictions ) {
+            V existing = this.protectedEntries.get( key );
+            if ( existing == null ) {
+                existing = this.probation.get( key );
+            }
+            if ( existing != null ) {
+                return existing;
+            }
+
+            this.probation.put( key, value );
+            while ( size() > this.capacity ) {
+                LinkedHashMap<K, V> victims = 
+                        this.probation.isEmpty() ? this.protectedEntries : this.probation;
+                Iterator<K> eldest = victims.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+            return value;
+        }
+
+        synchronized int size() {
+            return this.probation.size() + this.protectedEntries.size();
+        }
+
+        synchronized void clear() {
+            this.probation.clear();
+            this.protectedEntries.clear();
+        }
+
+        private void promote( K key, V value ) {
+            this.protectedEntries.put( key, value );
+            if ( this.protectedEntries.size() > this.protectedCapacity ) {
+                // demote the least recently used protected entry
+                Iterator<Map.Entry<K, V>> eldest = 
+                        this.protectedEntries.entrySet().iterator();
+                Map.Entry<K, V> demoted = eldest.next();
+                eldest.remove();
+                this.probation.put( demoted.getKey(), demoted.getValue() );
+            }
+        }
+    }
+}
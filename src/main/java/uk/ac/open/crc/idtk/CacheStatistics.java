@@ -0,0 +1,103 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+/**
+ * An immutable snapshot of the statistics of a cache, intended to help 
+ * choose a cache size.
+ */
+public final class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+    private final long maximumSize;
+
+    CacheStatistics( 
+            long hitCount, 
+            long missCount, 
+            long evictionCount, 
+            long size, 
+            long maximumSize ) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Reports the number of lookups that found a cached value.
+     * @return a count of hits
+     */
+    public long hitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Reports the number of lookups that found no cached value.
+     * @return a count of misses
+     */
+    public long missCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Reports the number of entries removed to make space for others.
+     * @return a count of evictions
+     */
+    public long evictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Reports the number of entries held when the snapshot was taken.
+     * @return a count of entries
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Reports the maximum number of entries the cache holds.
+     * @return the cache capacity
+     */
+    public long maximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * Reports the proportion of lookups that found a cached value.
+     * @return the hit rate, or 1.0 if there have been no lookups
+     */
+    public double hitRate() {
+        long lookups = this.hitCount + this.missCount;
+        return lookups == 0 ? 1.0 : (double) this.hitCount / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format( 
+                "hits: %d, misses: %d, evictions: %d, size: %d/%d",
+                this.hitCount, 
+                this.missCount, 
+                this.evictionCount, 
+                this.size, 
+                this.maximumSize );
+    }
+}
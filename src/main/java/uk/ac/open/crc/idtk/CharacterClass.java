@@ -0,0 +1,103 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+/**
+ * Classifies characters for tokenisation. ASCII characters, which make up
+ * almost all identifier names, are classified with a lookup table; all 
+ * other code points are classified by their Unicode general category, so 
+ * the classes are the same as those of the regular expression classes 
+ * {@code \p{Ll}}, {@code \p{Lu}} and {@code \p{Nd}}.
+ */
+final class CharacterClass {
+
+    /** Any character not in one of the other classes. */
+    static final byte OTHER = 0;
+    /** A lower case letter, general category Ll. */
+    static final byte LOWER = 1;
+    /** An upper case letter, general category Lu. */
+    static final byte UPPER = 2;
+    /** A decimal digit, general category Nd. */
+    static final byte DIGIT = 3;
+    /** A token separator, i.e. an underscore or dollar sign. */
+    static final byte SEPARATOR = 4;
+
+    private static final byte[] ASCII = new byte[ 128 ];
+
+    static {
+        for ( char c = 'a'; c <= 'z'; c++ ) {
+            ASCII[ c ] = LOWER;
+        }
+        for ( char c = 'A'; c <= 'Z'; c++ ) {
+            ASCII[ c ] = UPPER;
+        }
+        for ( char c = '0'; c <= '9'; c++ ) {
+            ASCII[ c ] = DIGIT;
+        }
+        ASCII[ '_' ] = SEPARATOR;
+        ASCII[ '$' ] = SEPARATOR;
+    }
+
+    /**
+     * Classifies an ASCII character.
+     * @param c a character less than 128
+     * @return the class of the character
+     */
+    static byte ofAscii( char c ) {
+        return ASCII[ c ];
+    }
+
+    /**
+     * Folds the case of a character as 
+     * {@link String#equalsIgnoreCase(String)} does, so two characters 
+     * are equal ignoring case if their folded forms are equal. ASCII 
+     * characters are folded without calling {@link Character}.
+     * @param c a character
+     * @return the folded character
+     */
+    static char foldCase( char c ) {
+        if ( c < 128 ) {
+            return c >= 'A' && c <= 'Z' ? (char) ( c + ( 'a' - 'A' ) ) : c;
+        }
+        return Character.toLowerCase( Character.toUpperCase( c ) );
+    }
+
+    /**
+     * Classifies a code point. Unpaired surrogates are classified as 
+     * {@link #OTHER}.
+     * @param codePoint a code point
+     * @return the class of the code point
+     */
+    static byte of( int codePoint ) {
+        if ( codePoint < 128 ) {
+            return ASCII[ codePoint ];
+        }
+
+        switch ( Character.getType( codePoint ) ) {
+            case Character.LOWERCASE_LETTER:
+                return LOWER;
+            case Character.UPPERCASE_LETTER:
+                return UPPER;
+            case Character.DECIMAL_DIGIT_NUMBER:
+                return DIGIT;
+            default:
+                return OTHER;
+        }
+    }
+
+    private CharacterClass() {}
+}
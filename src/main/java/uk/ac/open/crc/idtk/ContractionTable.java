@@ -0,0 +1,252 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable table of contractions and their expansions, built once 
+ * and searched by the content of a span of a character sequence, so a 
+ * token can be looked up without creating a string or converting it to 
+ * lower case first.
+ * 
+ * <p>
+ * The characters of the contractions are held in a single array and 
+ * found through an open addressing hash table that is at most a quarter 
+ * full, keyed on their case folded content, so most lookups of tokens 
+ * that are not contractions end at an empty slot or a length mismatch 
+ * without comparing any characters. Lookups may match exactly or ignore 
+ * case, as {@link String#equalsIgnoreCase(String)}. Exact lookups of 
+ * strings use a second table keyed on the hash codes strings cache.
+ * </p>
+ */
+final class ContractionTable {
+
+    private static final int EMPTY = -1;
+
+    private final char[] characters;
+    // offsets[ entry ] to offsets[ entry + 1 ] bounds a contraction
+    private final int[] offsets;
+    private final List<String>[] expansions;
+    // slots hold entries, or EMPTY
+    private final int[] table;
+    private final int mask;
+    // the same entries keyed on String.hashCode(), which strings cache, 
+    // for exact lookups of strings
+    private final int[] exactTable;
+    private final int[] exactHashes;
+
+    // bit n is set if a contraction has length n, or 63 or more for n = 63
+    private final long lengths;
+    // bit c is set if a contraction starts with ASCII character c when 
+    // case is folded, using the low six bits of c as long shifts do; 
+    // tokens starting with other characters are always searched
+    private final long firstCharactersLow;
+    private final long firstCharactersHigh;
+
+    /**
+     * Builds a table.
+     * @param contractions maps each contraction to its expansion, an 
+     * unmodifiable list that is shared rather than copied
+     */
+    ContractionTable( Map<String, ? extends List<String>> contractions ) {
+        int size = contractions.size();
+        int characterCount = 0;
+        for ( String contraction : contractions.keySet() ) {
+            characterCount += contraction.length();
+        }
+
+        this.characters = new char[ characterCount ];
+        this.offsets = new int[ size + 1 ];
+        @SuppressWarnings( { "rawtypes", "unchecked" } )
+        List<String>[] expansions = new List[ size ];
+        this.expansions = expansions;
+        int tableSize = 16;
+        while ( tableSize < size * 4 ) {
+            tableSize *= 2;
+        }
+        this.table = new int[ tableSize ];
+        Arrays.fill( this.table, EMPTY );
+        this.mask = tableSize - 1;
+        this.exactTable = new int[ tableSize ];
+        Arrays.fill( this.exactTable, EMPTY );
+        this.exactHashes = new int[ size ];
+
+        long lengthBits = 0;
+        long lowBits = 0;
+        long highBits = 0;
+        int entry = 0;
+        for ( Map.Entry<String, ? extends List<String>> contraction : contractions.entrySet() ) {
+            String key = contraction.getKey();
+            lengthBits |= 1L << Math.min( key.length(), 63 );
+            if ( ! key.isEmpty() ) {
+                char first = CharacterClass.foldCase( key.charAt( 0 ) );
+                if ( first < 64 ) {
+                    lowBits |= 1L << first;
+                }
+                else if ( first < 128 ) {
+                    highBits |= 1L << first;
+                }
+            }
+
+            key.getChars( 0, key.length(), this.characters, this.offsets[ entry ] );
+            this.offsets[ entry + 1 ] = this.offsets[ entry ] + key.length();
+            this.expansions[ entry ] = contraction.getValue();
+
+            int slot = hash( key, 0, key.length() ) & this.mask;
+            while ( this.table[ slot ] != EMPTY ) {
+                slot = ( slot + 1 ) & this.mask;
+            }
+            this.table[ slot ] = entry;
+
+            this.exactHashes[ entry ] = key.hashCode();
+            slot = spread( key.hashCode() ) & this.mask;
+            while ( this.exactTable[ slot ] != EMPTY ) {
+                slot = ( slot + 1 ) & this.mask;
+            }
+            this.exactTable[ slot ] = entry;
+            entry++;
+        }
+        this.lengths = lengthBits;
+        this.firstCharactersLow = lowBits;
+        this.firstCharactersHigh = highBits;
+    }
+
+    /**
+     * Finds a span of a character sequence in the table.
+     * @param source a character sequence
+     * @param start the index of the first character of the span
+     * @param end the index following the last character of the span
+     * @param ignoreCase {@code true} to ignore case
+     * @return the entry of the contraction, or -1 if there is none
+     */
+    int find( CharSequence source, int start, int end, boolean ignoreCase ) {
+        int length = end - start;
+        if ( ! mayContain( source, start, length ) ) {
+            return EMPTY;
+        }
+
+        int slot = hash( source, start, end ) & this.mask;
+        int entry;
+        while ( ( entry = this.table[ slot ] ) != EMPTY ) {
+            if ( this.offsets[ entry + 1 ] - this.offsets[ entry ] == length 
+                    && matches( entry, source, start, ignoreCase ) ) {
+                return entry;
+            }
+            slot = ( slot + 1 ) & this.mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Finds a string in the table, matching case exactly. This is faster
+     * than {@link #find} for strings whose hash codes have already been 
+     * computed.
+     * @param token a string
+     * @return the entry of the contraction, or -1 if there is none
+     */
+    int findExact( String token ) {
+        int hash = token.hashCode();
+        int slot = spread( hash ) & this.mask;
+        int entry;
+        while ( ( entry = this.exactTable[ slot ] ) != EMPTY ) {
+            if ( this.exactHashes[ entry ] == hash 
+                    && this.offsets[ entry + 1 ] - this.offsets[ entry ] == token.length()
+                    && matches( entry, token, 0, false ) ) {
+                return entry;
+            }
+            slot = ( slot + 1 ) & this.mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Retrieves the expansion of an entry.
+     * @param entry an entry returned by {@link #find}
+     * @return an unmodifiable list of words
+     */
+    List<String> expansion( int entry ) {
+        return this.expansions[ entry ];
+    }
+
+    /**
+     * Retrieves the expansion of a span of a character sequence.
+     * @return an unmodifiable list of words, or {@code null} if the span 
+     * is not a contraction
+     */
+    List<String> expansionOf( CharSequence source, int start, int end, boolean ignoreCase ) {
+        int entry = find( source, start, end, ignoreCase );
+        return entry == EMPTY ? null : this.expansions[ entry ];
+    }
+
+    /**
+     * Reports the number of contractions held.
+     * @return a count of contractions
+     */
+    int size() {
+        return this.expansions.length;
+    }
+
+    // rejects most spans by their length and first character without 
+    // hashing them
+    private boolean mayContain( CharSequence source, int start, int length ) {
+        if ( ( this.lengths & ( 1L << Math.min( length, 63 ) ) ) == 0 ) {
+            return false;
+        }
+        if ( length == 0 ) {
+            return true;
+        }
+        char first = CharacterClass.foldCase( source.charAt( start ) );
+        if ( first < 64 ) {
+            return ( this.firstCharactersLow & ( 1L << first ) ) != 0;
+        }
+        if ( first < 128 ) {
+            return ( this.firstCharactersHigh & ( 1L << first ) ) != 0;
+        }
+        return true;
+    }
+
+    private boolean matches( int entry, CharSequence source, int start, boolean ignoreCase ) {
+        int offset = this.offsets[ entry ];
+        int end = this.offsets[ entry + 1 ];
+        for ( int i = start; offset < end; i++, offset++ ) {
+            char c = source.charAt( i );
+            char d = this.characters[ offset ];
+            if ( c != d && ( ! ignoreCase 
+                    || CharacterClass.foldCase( c ) != CharacterClass.foldCase( d ) ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash( CharSequence source, int start, int end ) {
+        int hash = 0;
+        for ( int i = start; i < end; i++ ) {
+            hash = 31 * hash + CharacterClass.foldCase( source.charAt( i ) );
+        }
+        return spread( hash );
+    }
+
+    // spread the bits so that the low order bits index the table well
+    private static int spread( int hash ) {
+        hash *= 0x9e3779b9;
+        return hash ^ ( hash >>> 16 );
+    }
+}
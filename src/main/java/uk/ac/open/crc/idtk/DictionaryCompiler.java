@@ -0,0 +1,81 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles expansion dictionaries from text to the binary form, which 
+ * {@link ExpansionDictionary#fromFile(Path)} and 
+ * {@link ExpansionDictionary#fromResource(String)} load without decoding 
+ * and splitting each line, memory mapping files. The dictionary built 
+ * into the library is compiled this way when the library is built. 
+ * Entries are checked with the rules applied when a dictionary is 
+ * loaded, and a malformed or repeated entry fails the compilation with 
+ * the line that holds it.
+ * 
+ * <p>
+ * Run as {@code java uk.ac.open.crc.idtk.DictionaryCompiler in.txt 
+ * out.bin [in.txt out.bin ...]}.
+ * </p>
+ */
+public final class DictionaryCompiler {
+
+    private DictionaryCompiler() {}
+
+    /**
+     * Compiles each pair of text and binary files named.
+     * @param args pairs of paths of text dictionaries and the binary 
+     * dictionaries to write
+     * @throws IOException if a dictionary cannot be read or written
+     */
+    public static void main( String[] args ) throws IOException {
+        if ( args.length == 0 || args.length % 2 != 0 ) {
+            throw new IllegalArgumentException( 
+                    "usage: DictionaryCompiler in.txt out.bin [in.txt out.bin ...]" );
+        }
+        for ( int i = 0; i < args.length; i += 2 ) {
+            compile( Paths.get( args[ i ] ), Paths.get( args[ i + 1 ] ) );
+        }
+    }
+
+    /**
+     * Compiles a text dictionary to a binary dictionary.
+     * @param text a UTF-8 text dictionary
+     * @param binary the file to write, which is replaced if it exists
+     * @throws IOException if a dictionary cannot be read or written, or 
+     * the text dictionary holds a malformed or repeated entry
+     */
+    public static void compile( Path text, Path binary ) throws IOException {
+        Map<String, List<String>> expansions = 
+                DictionaryFormat.readCheckedText( Files.newInputStream( text ), text.toString() );
+        Path parent = binary.toAbsolutePath().getParent();
+        if ( parent != null ) {
+            Files.createDirectories( parent );
+        }
+        try ( OutputStream out = new BufferedOutputStream( Files.newOutputStream( binary ) ) ) {
+            DictionaryFormat.writeBinary( expansions, out );
+        }
+    }
+}
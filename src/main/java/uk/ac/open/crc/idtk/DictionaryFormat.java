@@ -0,0 +1,260 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the text and binary forms of expansion dictionaries.
+ * 
+ * <p>
+ * The text form has one entry per line, followed by a comma and the 
+ * words of the expansion separated by spaces. The binary form is written 
+ * when the library is built, and by {@link DictionaryCompiler}, so that 
+ * a dictionary can be loaded with a few bulk reads rather than by 
+ * decoding and splitting each line. All values are big endian:
+ * </p>
+ * <pre>
+ * int      magic number, 0x00696478, which no text file starts with
+ * int      format version
+ * int      number of distinct strings, s
+ * int      number of chars in the strings, c
+ * char[c]  the strings, concatenated
+ * int[s]   the offset of the end of each string
+ * int      number of ints in the entries, n
+ * int[n]   for each entry, the string of the entry, the number of 
+ *          words in the expansion and the string of each word
+ * </pre>
+ */
+final class DictionaryFormat {
+
+    /** The first four bytes of a binary dictionary. */
+    static final int MAGIC = 0x00696478;
+
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private DictionaryFormat() {}
+
+    /**
+     * Tests whether a buffer holds a binary dictionary.
+     * @param buffer a buffer, whose position is not changed
+     * @return {@code true} if the buffer starts with the magic number
+     */
+    static boolean isBinary( ByteBuffer buffer ) {
+        return buffer.remaining() >= HEADER_SIZE 
+                && buffer.getInt( buffer.position() ) == MAGIC;
+    }
+
+    /**
+     * Reads the text form of a dictionary from a stream, which is closed.
+     * Lines without exactly one comma are ignored.
+     * @param inStream a stream of UTF-8 text
+     * @return a modifiable map of entries to their expansions, in the 
+     * order read
+     * @throws IOException if the stream cannot be read
+     */
+    static Map<String, List<String>> readText( InputStream inStream ) throws IOException {
+        return readText( inStream, null );
+    }
+
+    /**
+     * Reads the text form of a dictionary as {@link #readText(InputStream)},
+     * checking each entry as it is read with the rules applied when a 
+     * dictionary is created, so that the line of a malformed entry can 
+     * be reported. An entry may not be repeated.
+     * @param inStream a stream of UTF-8 text
+     * @param source the name of the stream, for messages
+     * @return a modifiable map of entries to their expansions, in the 
+     * order read
+     * @throws IOException if the stream cannot be read, or a line holds a
+     * malformed or repeated entry
+     */
+    static Map<String, List<String>> readCheckedText( InputStream inStream, String source ) 
+            throws IOException {
+        return readText( inStream, source );
+    }
+
+    // entries are checked if source is not null
+    private static Map<String, List<String>> readText( InputStream inStream, String source ) 
+            throws IOException {
+        Map<String, List<String>> expansions = new LinkedHashMap<>();
+        try ( BufferedReader in = new BufferedReader( 
+                new InputStreamReader( inStream, StandardCharsets.UTF_8 ) ) ) {
+            String line;
+            int lineNumber = 0;
+            while ( ( line = in.readLine() ) != null ) {
+                lineNumber++;
+                String[] tokens = line.split( "," );
+                // sanity check
+                if ( tokens.length != 2 ) {
+                    continue;
+                }
+                List<String> words = Arrays.asList( tokens[ 1 ].split( " " ) );
+                if ( source != null ) {
+                    try {
+                        ExpansionDictionary.checkEntry( tokens[ 0 ], words );
+                    }
+                    catch ( IllegalArgumentException e ) {
+                        throw new IOException( String.format( 
+                                "%s:%d: %s: %s", source, lineNumber, e.getMessage(), line ), e );
+                    }
+                    if ( expansions.containsKey( tokens[ 0 ] ) ) {
+                        throw new IOException( String.format( 
+                                "%s:%d: repeated entry \"%s\": %s", 
+                                source, lineNumber, tokens[ 0 ], line ) );
+                    }
+                }
+                expansions.put( tokens[ 0 ], words );
+            }
+        }
+        return expansions;
+    }
+
+    /**
+     * Writes the binary form of a dictionary. The stream is not closed.
+     * @param expansions maps entries to their expansions
+     * @param outStream a stream
+     * @throws IOException if the stream cannot be written
+     */
+    static void writeBinary( 
+            Map<String, ? extends List<String>> expansions, 
+            OutputStream outStream ) throws IOException {
+        // strings are written once, however many times they occur
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        int[] entries = new int[ 16 ];
+        int size = 0;
+        int charCount = 0;
+        for ( Map.Entry<String, ? extends List<String>> expansion : expansions.entrySet() ) {
+            List<String> words = expansion.getValue();
+            if ( size + words.size() + 2 > entries.length ) {
+                entries = Arrays.copyOf( entries, Math.max( entries.length * 2, size + words.size() + 2 ) );
+            }
+            entries[ size++ ] = stringId( expansion.getKey(), strings );
+            entries[ size++ ] = words.size();
+            for ( String word : words ) {
+                entries[ size++ ] = stringId( word, strings );
+            }
+        }
+        for ( String string : strings.keySet() ) {
+            charCount += string.length();
+        }
+
+        DataOutputStream out = new DataOutputStream( outStream );
+        out.writeInt( MAGIC );
+        out.writeInt( VERSION );
+        out.writeInt( strings.size() );
+        out.writeInt( charCount );
+        for ( String string : strings.keySet() ) {
+            out.writeChars( string );
+        }
+        int offset = 0;
+        for ( String string : strings.keySet() ) {
+            offset += string.length();
+            out.writeInt( offset );
+        }
+        out.writeInt( size );
+        for ( int i = 0; i < size; i++ ) {
+            out.writeInt( entries[ i ] );
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads the binary form of a dictionary from a buffer, starting at its
+     * position.
+     * @param buffer a buffer holding a binary dictionary
+     * @return a modifiable map of entries to their expansions, in the 
+     * order written
+     * @throws IOException if the buffer does not hold a binary dictionary 
+     * of a supported version
+     */
+    static Map<String, List<String>> readBinary( ByteBuffer buffer ) throws IOException {
+        if ( ! isBinary( buffer ) ) {
+            throw new IOException( "not a binary dictionary" );
+        }
+        try {
+            buffer.getInt();
+            int version = buffer.getInt();
+            if ( version != VERSION ) {
+                throw new IOException( "unsupported dictionary version: " + version );
+            }
+            int stringCount = buffer.getInt();
+            char[] characters = new char[ buffer.getInt() ];
+            buffer.asCharBuffer().get( characters );
+            skip( buffer, characters.length * 2 );
+            int[] ends = new int[ stringCount ];
+            buffer.asIntBuffer().get( ends );
+            skip( buffer, stringCount * 4 );
+
+            String[] strings = new String[ stringCount ];
+            int start = 0;
+            for ( int i = 0; i < stringCount; i++ ) {
+                strings[ i ] = new String( characters, start, ends[ i ] - start );
+                start = ends[ i ];
+            }
+
+            int[] entries = new int[ buffer.getInt() ];
+            buffer.asIntBuffer().get( entries );
+            skip( buffer, entries.length * 4 );
+
+            Map<String, List<String>> expansions = new LinkedHashMap<>();
+            int i = 0;
+            while ( i < entries.length ) {
+                String entry = strings[ entries[ i++ ] ];
+                List<String> words = new ArrayList<>( entries[ i ] );
+                for ( int end = i + 1 + entries[ i++ ]; i < end; i++ ) {
+                    words.add( strings[ entries[ i ] ] );
+                }
+                expansions.put( entry, words );
+            }
+            return expansions;
+        }
+        catch ( BufferUnderflowException | IndexOutOfBoundsException 
+                | IllegalArgumentException | NegativeArraySizeException e ) {
+            throw new IOException( "malformed binary dictionary", e );
+        }
+    }
+
+    private static int stringId( String string, Map<String, Integer> strings ) {
+        Integer id = strings.get( string );
+        if ( id == null ) {
+            id = strings.size();
+            strings.put( string, id );
+        }
+        return id;
+    }
+
+    // through Buffer, as ByteBuffer.position(int) is missing before Java 9
+    private static void skip( ByteBuffer buffer, int bytes ) {
+        ( (Buffer) buffer ).position( buffer.position() + bytes );
+    }
+}
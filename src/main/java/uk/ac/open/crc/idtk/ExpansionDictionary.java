@@ -0,0 +1,448 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An immutable set of contractions, such as "cant", and the words they 
+ * expand to, such as "can not". Abbreviations, such as "cfg", may be 
+ * expanded in the same way, and an entry may be a phrase of several 
+ * tokens, such as "num of". The contractions built into the library
+ * are available as {@link #builtIn()}, and others may be loaded from 
+ * classpath resources or files and combined with them. {@link Modals} 
+ * expands contractions with whichever dictionary was last given to 
+ * {@link Modals#setDictionary(ExpansionDictionary)}.
+ * 
+ * <p>
+ * Dictionaries are read from UTF-8 text with one contraction per line, 
+ * followed by a comma and the words of the expansion separated by 
+ * spaces, e.g. {@code wont,will not} or {@code num of,number of}. Lines
+ * without exactly one comma are ignored. Entries whose tokens are not 
+ * separated by single spaces, and entries that expand to no words, or to
+ * blank words, are rejected. They may also be read from the
+ * binary form written by {@link #write(OutputStream)} and 
+ * {@link DictionaryCompiler}, which loads faster, and is memory mapped 
+ * when read from a file. The built in dictionary is compiled to the 
+ * binary form when the library is built, and is loaded when it is first
+ * used rather than when {@link Modals} is loaded.
+ * </p>
+ * 
+ * <p>
+ * Lists of tokens are expanded in a single pass from left to right, 
+ * replacing the longest entry that starts at each token. The entries are
+ * held in a trie over token sequences, so the cost of expansion depends 
+ * on the number of tokens and the length of the longest entry, not on 
+ * the number of entries. 
+ * </p>
+ * 
+ * <p>
+ * Instances are immutable and thread safe. Lookups of strings match case
+ * exactly, and lookups of spans ignore case.
+ * </p>
+ */
+public final class ExpansionDictionary {
+
+    private static final String BUILT_IN_RESOURCE = "/contractions.txt";
+    // compiled from BUILT_IN_RESOURCE when the library is built
+    private static final String BUILT_IN_BINARY_RESOURCE = "/contractions.bin";
+    // files of this size or larger are memory mapped
+    private static final long MAPPING_THRESHOLD = 64 * 1024;
+
+    private final Map<String, List<String>> expansions;
+    private final ContractionTable table;
+    // numbers entries in the same order as the table
+    private final ExpansionTrie trie;
+
+    // the lists of words must be unmodifiable, and are shared by 
+    // dictionaries derived from this one
+    private ExpansionDictionary( Map<String, List<String>> expansions ) {
+        for ( Map.Entry<String, List<String>> entry : expansions.entrySet() ) {
+            checkEntry( entry.getKey(), entry.getValue() );
+        }
+        this.expansions = Collections.unmodifiableMap( expansions );
+        this.table = new ContractionTable( expansions );
+        this.trie = new ExpansionTrie( expansions.keySet() );
+    }
+
+    /**
+     * Retrieves the contractions built into the library.
+     * @return the built in dictionary
+     */
+    public static ExpansionDictionary builtIn() {
+        return BuiltIn.DICTIONARY;
+    }
+
+    /**
+     * Creates a dictionary from a map of contractions to their expansions.
+     * @param expansions maps contractions to the words they expand to
+     * @return a dictionary
+     * @throws IllegalArgumentException if an entry has an empty token, or
+     * an expansion is empty or contains a blank word
+     */
+    public static ExpansionDictionary of( Map<String, ? extends List<String>> expansions ) {
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        for ( Map.Entry<String, ? extends List<String>> entry : expansions.entrySet() ) {
+            copy.put( entry.getKey(), 
+                    Collections.unmodifiableList( new ArrayList<>( entry.getValue() ) ) );
+        }
+        return new ExpansionDictionary( copy );
+    }
+
+    /**
+     * Loads a dictionary, in either form, from a classpath resource. 
+     * Resources held in files are memory mapped.
+     * @param resource the name of the resource, as 
+     * {@link Class#getResource(String)}
+     * @return a dictionary
+     * @throws IOException if the resource is missing or cannot be read, 
+     * or holds a malformed entry or expansion
+     */
+    public static ExpansionDictionary fromResource( String resource ) throws IOException {
+        URL url = ExpansionDictionary.class.getResource( resource );
+        if ( url == null ) {
+            throw new FileNotFoundException( "missing resource: " + resource );
+        }
+        if ( "file".equals( url.getProtocol() ) ) {
+            try {
+                return fromFile( Paths.get( url.toURI() ) );
+            }
+            catch ( URISyntaxException | IllegalArgumentException e ) {
+                // read through the URL instead
+            }
+        }
+        return read( url.openStream() );
+    }
+
+    /**
+     * Loads a dictionary, in either form, from a file. Binary files are 
+     * memory mapped.
+     * @param file a file
+     * @return a dictionary
+     * @throws IOException if the file cannot be read, or holds a 
+     * malformed entry or expansion
+     */
+    public static ExpansionDictionary fromFile( Path file ) throws IOException {
+        try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+            ByteBuffer buffer;
+            if ( channel.size() < MAPPING_THRESHOLD ) {
+                // small files are read faster than they are mapped
+                buffer = ByteBuffer.allocate( (int) channel.size() );
+                while ( buffer.hasRemaining() && channel.read( buffer ) >= 0 ) {
+                    // read until full
+                }
+                // through Buffer, as ByteBuffer.flip() is missing before Java 9
+                ( (Buffer) buffer ).flip();
+            }
+            else {
+                buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+            }
+            if ( DictionaryFormat.isBinary( buffer ) ) {
+                return loaded( DictionaryFormat.readBinary( buffer ) );
+            }
+        }
+        return read( Files.newInputStream( file ) );
+    }
+
+    /**
+     * Reads a dictionary, in either form, from a stream, which is closed.
+     * @param inStream a stream of UTF-8 text or of a binary dictionary
+     * @return a dictionary
+     * @throws IOException if the stream cannot be read, or holds a 
+     * malformed entry or expansion
+     */
+    public static ExpansionDictionary read( InputStream inStream ) throws IOException {
+        InputStream in = new BufferedInputStream( inStream );
+        in.mark( 4 );
+        int magic = 0;
+        for ( int i = 0; i < 4; i++ ) {
+            int b = in.read();
+            if ( b < 0 ) {
+                break;
+            }
+            magic = ( magic << 8 ) | b;
+        }
+        in.reset();
+        if ( magic != DictionaryFormat.MAGIC ) {
+            return loaded( DictionaryFormat.readText( in ) );
+        }
+
+        try ( InputStream binary = in ) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] block = new byte[ 8192 ];
+            int count;
+            while ( ( count = binary.read( block ) ) > 0 ) {
+                bytes.write( block, 0, count );
+            }
+            return loaded( 
+                    DictionaryFormat.readBinary( ByteBuffer.wrap( bytes.toByteArray() ) ) );
+        }
+    }
+
+    /**
+     * Combines this dictionary with another. Where both hold a 
+     * contraction, the expansion in the other dictionary is used.
+     * @param other a dictionary
+     * @return a dictionary holding the contractions of both
+     */
+    public ExpansionDictionary plus( ExpansionDictionary other ) {
+        Map<String, List<String>> combined = new LinkedHashMap<>( this.expansions );
+        combined.putAll( other.expansions );
+        return new ExpansionDictionary( combined );
+    }
+
+    /**
+     * Tests whether a token is a contraction, matching case exactly.
+     * @param token a token
+     * @return {@code true} if the token is a contraction
+     */
+    public boolean isContraction( String token ) {
+        return this.table.findExact( token ) >= 0;
+    }
+
+    /**
+     * Tests whether a span of a character sequence is a contraction, 
+     * ignoring case.
+     * @param source a character sequence, e.g. a name
+     * @param start the index of the first character of the span
+     * @param end the index following the last character of the span
+     * @return {@code true} if the span is a contraction
+     */
+    public boolean isContractionIgnoreCase( CharSequence source, int start, int end ) {
+        return this.table.find( source, start, end, true ) >= 0;
+    }
+
+    /**
+     * Retrieves the expansion of a token, matching case exactly.
+     * @param token a token
+     * @return an unmodifiable list of words, or {@code null} if the token
+     * is not a contraction
+     */
+    public List<String> expansionOf( String token ) {
+        int entry = this.table.findExact( token );
+        return entry < 0 ? null : this.table.expansion( entry );
+    }
+
+    /**
+     * Retrieves the expansion of a span of a character sequence, matching
+     * case exactly.
+     * @param source a character sequence, e.g. a name
+     * @param start the index of the first character of the span
+     * @param end the index following the last character of the span
+     * @return an unmodifiable list of words, or {@code null} if the span 
+     * is not a contraction
+     */
+    List<String> expansionOf( CharSequence source, int start, int end ) {
+        return this.table.expansionOf( source, start, end, false );
+    }
+
+    /**
+     * Retrieves the expansion of a span of a character sequence, ignoring
+     * case.
+     * @param source a character sequence, e.g. a name
+     * @param start the index of the first character of the span
+     * @param end the index following the last character of the span
+     * @return an unmodifiable list of words, or {@code null} if the span 
+     * is not a contraction
+     */
+    public List<String> expansionIgnoreCase( CharSequence source, int start, int end ) {
+        return this.table.expansionOf( source, start, end, true );
+    }
+
+    /**
+     * Expands the entries found in a list of tokens, matching case 
+     * exactly. Where entries overlap, the longest entry starting at the 
+     * earliest token is expanded.
+     * @param tokens a list of tokens
+     * @return a new list holding the expanded tokens, or {@code tokens} 
+     * itself if no entry is found
+     */
+    public List<String> expand( List<String> tokens ) {
+        if ( this.trie.maximumLength() == 1 ) {
+            return expandTokens( tokens );
+        }
+
+        List<String> expanded = null;
+        int size = tokens.size();
+        int i = 0;
+        while ( i < size ) {
+            int entry = this.trie.longestMatch( tokens, i );
+            if ( entry == ExpansionTrie.NOT_FOUND ) {
+                if ( expanded != null ) {
+                    expanded.add( tokens.get( i ) );
+                }
+                i++;
+                continue;
+            }
+
+            if ( expanded == null ) {
+                // most lists hold no entries, so copy only when one is found
+                expanded = new ArrayList<>( size + 4 );
+                expanded.addAll( tokens.subList( 0, i ) );
+            }
+            expanded.addAll( this.table.expansion( entry ) );
+            i += this.trie.length( entry );
+        }
+        return expanded == null ? tokens : expanded;
+    }
+
+    /**
+     * Reports the number of tokens in the longest entry, which is 1 
+     * unless some entry is a phrase.
+     * @return a count of tokens
+     */
+    public int longestEntryLength() {
+        return this.trie.maximumLength();
+    }
+
+    /**
+     * Writes the binary form of this dictionary. The stream is not closed.
+     * @param outStream a stream
+     * @throws IOException if the stream cannot be written
+     */
+    public void write( OutputStream outStream ) throws IOException {
+        DictionaryFormat.writeBinary( this.expansions, outStream );
+    }
+
+    /**
+     * Retrieves the contractions and their expansions.
+     * @return an unmodifiable map of contractions to their expansions
+     */
+    public Map<String, List<String>> asMap() {
+        return this.expansions;
+    }
+
+    /**
+     * Reports the number of contractions held.
+     * @return a count of contractions
+     */
+    public int size() {
+        return this.table.size();
+    }
+
+    // creates a dictionary from one that has been read, which has not 
+    // been checked
+    private static ExpansionDictionary loaded( Map<String, List<String>> expansions ) 
+            throws IOException {
+        for ( Map.Entry<String, List<String>> entry : expansions.entrySet() ) {
+            entry.setValue( Collections.unmodifiableList( entry.getValue() ) );
+        }
+        try {
+            return new ExpansionDictionary( expansions );
+        }
+        catch ( IllegalArgumentException e ) {
+            throw new IOException( "malformed dictionary: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Checks an entry and its expansion. Entries are split into tokens at
+     * single spaces, so none may be empty.
+     * @param entry an entry
+     * @param words the words of its expansion
+     * @throws IllegalArgumentException if the entry has an empty token, 
+     * or the expansion is empty or contains a blank word
+     */
+    static void checkEntry( String entry, List<String> words ) {
+        if ( entry == null || entry.isEmpty() || entry.startsWith( " " ) 
+                || entry.endsWith( " " ) || entry.contains( "  " ) ) {
+            throw new IllegalArgumentException( "empty token in entry \"" + entry + "\"" );
+        }
+        if ( words.isEmpty() ) {
+            throw new IllegalArgumentException( "empty expansion for \"" + entry + "\"" );
+        }
+        for ( String word : words ) {
+            if ( word == null || word.trim().isEmpty() ) {
+                throw new IllegalArgumentException( 
+                        "blank word in expansion of \"" + entry + "\"" );
+            }
+        }
+    }
+
+    // expands entries of one token with the faster exact table
+    private List<String> expandTokens( List<String> tokens ) {
+        if ( ! containsContraction( tokens ) ) {
+            return tokens;
+        }
+
+        List<String> expanded = new ArrayList<>( tokens.size() + 4 );
+        for ( String token : tokens ) {
+            List<String> expansion = expansionOf( token );
+            if ( expansion != null ) {
+                expanded.addAll( expansion );
+            }
+            else {
+                expanded.add( token );
+            }
+        }
+        return expanded;
+    }
+
+    private boolean containsContraction( List<String> tokens ) {
+        for ( String token : tokens ) {
+            if ( isContraction( token ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // loads the built in dictionary when it is first used, from the 
+    // binary form unless the build step that creates it has not run
+    private static final class BuiltIn {
+        static final ExpansionDictionary DICTIONARY = load();
+
+        private static ExpansionDictionary load() {
+            try {
+                return ExpansionDictionary.class.getResource( BUILT_IN_BINARY_RESOURCE ) != null 
+                        ? fromResource( BUILT_IN_BINARY_RESOURCE )
+                        : fromResource( BUILT_IN_RESOURCE );
+            }
+            catch ( IOException e ) {
+                // the logger is only created, and initialised, on failure
+                Logger logger = LoggerFactory.getLogger( ExpansionDictionary.class );
+                logger.error(
+                        "problem instantiating Modal Expansion component:{}", 
+                        e.getMessage() );
+                throw new IllegalStateException( 
+                        "Could not instantiate Modal Expansion Component. "
+                                + "Refer error to developer." );
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable trie over sequences of tokens, such as "num of", built 
+ * once and searched for the longest entry starting at a position in a 
+ * list of tokens.
+ * 
+ * <p>
+ * Each distinct token in the entries is given a dense {@code int} 
+ * identifier, found through an open addressing table keyed on the hash 
+ * codes strings cache. The edges of the trie are held in a second open 
+ * addressing table keyed on the parent node and the token identifier 
+ * packed into a {@code long}, so the trie is a handful of arrays 
+ * whatever the number of entries. A search costs at most one lookup in 
+ * each table per token of the longest entry, and does not depend on the 
+ * number of entries. Most tokens are not the first token of an entry, 
+ * and searches for them end at an empty slot of the first table.
+ * </p>
+ */
+final class ExpansionTrie {
+
+    /** Value returned by searches that find no entry. */
+    static final int NOT_FOUND = -1;
+
+    private static final int ROOT = 0;
+    private static final int EMPTY = -1;
+    private static final long NO_EDGE = -1L;
+
+    // token identifiers, keyed on String.hashCode()
+    private final String[] tokens;
+    private final int[] tokenHashes;
+    private final int[] tokenTable;
+    private final int tokenMask;
+
+    // keys pack the parent node into the high bits and the token 
+    // identifier into the low bits; targets hold the child node
+    private final long[] edgeKeys;
+    private final int[] edgeTargets;
+    private final int edgeMask;
+
+    // the entry ending at each node, or NOT_FOUND
+    private final int[] nodeEntries;
+    // the number of tokens in each entry
+    private final int[] entryLengths;
+    private final int maximumLength;
+
+    /**
+     * Builds a trie. Entries are numbered in iteration order, and each 
+     * is split into tokens at single spaces, so must not be empty, start 
+     * or end with a space, or hold two spaces together. Where two entries
+     * have the same tokens the later is kept.
+     * @param entries the entries
+     */
+    ExpansionTrie( Collection<String> entries ) {
+        String[][] sequences = new String[ entries.size() ][];
+        int tokenCount = 0;
+        int index = 0;
+        for ( String entry : entries ) {
+            sequences[ index ] = entry.split( " " );
+            tokenCount += sequences[ index++ ].length;
+        }
+
+        int tableSize = 16;
+        while ( tableSize < tokenCount * 2 ) {
+            tableSize *= 2;
+        }
+        this.tokens = new String[ tokenCount ];
+        this.tokenHashes = new int[ tokenCount ];
+        this.tokenTable = new int[ tableSize ];
+        Arrays.fill( this.tokenTable, EMPTY );
+        this.tokenMask = tableSize - 1;
+        this.edgeKeys = new long[ tableSize ];
+        Arrays.fill( this.edgeKeys, NO_EDGE );
+        this.edgeTargets = new int[ tableSize ];
+        this.edgeMask = tableSize - 1;
+
+        int[] entriesByNode = new int[ tokenCount + 1 ];
+        Arrays.fill( entriesByNode, NOT_FOUND );
+        this.entryLengths = new int[ sequences.length ];
+        int tokenSize = 0;
+        int nodeCount = 1;
+        int longest = 0;
+        for ( int entry = 0; entry < sequences.length; entry++ ) {
+            int node = ROOT;
+            for ( String token : sequences[ entry ] ) {
+                int id = tokenId( token );
+                if ( id == NOT_FOUND ) {
+                    id = tokenSize++;
+                    this.tokens[ id ] = token;
+                    this.tokenHashes[ id ] = token.hashCode();
+                    this.tokenTable[ tokenSlot( token ) ] = id;
+                }
+                int slot = edgeSlot( node, id );
+                if ( this.edgeKeys[ slot ] == NO_EDGE ) {
+                    this.edgeKeys[ slot ] = edgeKey( node, id );
+                    this.edgeTargets[ slot ] = nodeCount++;
+                }
+                node = this.edgeTargets[ slot ];
+            }
+            entriesByNode[ node ] = entry;
+            this.entryLengths[ entry ] = sequences[ entry ].length;
+            longest = Math.max( longest, sequences[ entry ].length );
+        }
+        this.nodeEntries = Arrays.copyOf( entriesByNode, nodeCount );
+        this.maximumLength = longest;
+    }
+
+    /**
+     * Finds the longest entry matching the tokens starting at a position 
+     * in a list, matching case exactly.
+     * @param source a list of tokens
+     * @param from the index of the first token to match
+     * @return the entry, or {@link #NOT_FOUND}
+     */
+    int longestMatch( List<String> source, int from ) {
+        int limit = Math.min( source.size(), from + this.maximumLength );
+        int node = ROOT;
+        int match = NOT_FOUND;
+        for ( int i = from; i < limit; i++ ) {
+            int id = tokenId( source.get( i ) );
+            if ( id == NOT_FOUND ) {
+                break;
+            }
+            int slot = edgeSlot( node, id );
+            if ( this.edgeKeys[ slot ] == NO_EDGE ) {
+                break;
+            }
+            node = this.edgeTargets[ slot ];
+            if ( this.nodeEntries[ node ] != NOT_FOUND ) {
+                match = this.nodeEntries[ node ];
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Reports the number of tokens in an entry.
+     * @param entry an entry returned by {@link #longestMatch}
+     * @return a count of tokens
+     */
+    int length( int entry ) {
+        return this.entryLengths[ entry ];
+    }
+
+    /**
+     * Reports the number of tokens in the longest entry.
+     * @return a count of tokens
+     */
+    int maximumLength() {
+        return this.maximumLength;
+    }
+
+    /**
+     * Reports the number of nodes, including the root.
+     * @return a count of nodes
+     */
+    int nodeCount() {
+        return this.nodeEntries.length;
+    }
+
+    private int tokenId( String token ) {
+        int id = this.tokenTable[ tokenSlot( token ) ];
+        return id == EMPTY ? NOT_FOUND : id;
+    }
+
+    // finds the slot holding the token, or the empty slot it belongs in
+    private int tokenSlot( String token ) {
+        int hash = token.hashCode();
+        int slot = spread( hash ) & this.tokenMask;
+        int id;
+        while ( ( id = this.tokenTable[ slot ] ) != EMPTY ) {
+            if ( this.tokenHashes[ id ] == hash && this.tokens[ id ].equals( token ) ) {
+                break;
+            }
+            slot = ( slot + 1 ) & this.tokenMask;
+        }
+        return slot;
+    }
+
+    // finds the slot holding the edge, or the empty slot it belongs in
+    private int edgeSlot( int node, int id ) {
+        long key = edgeKey( node, id );
+        int slot = (int) ( ( key * 0x9e3779b97f4a7c15L ) >>> 32 ) & this.edgeMask;
+        long found;
+        while ( ( found = this.edgeKeys[ slot ] ) != NO_EDGE && found != key ) {
+            slot = ( slot + 1 ) & this.edgeMask;
+        }
+        return slot;
+    }
+
+    private static long edgeKey( int node, int id ) {
+        return ( (long) node << 32 ) | id;
+    }
+
+    // spread the bits so that the low order bits index the table well
+    private static int spread( int hash ) {
+        hash *= 0x9e3779b9;
+        return hash ^ ( hash >>> 16 );
+    }
+}
@@ -0,0 +1,364 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies a fixed sequence of normalisation stages to identifier names in
+ * a single pass. The stages, each of which may be enabled independently, 
+ * are applied in the order:
+ * <ol>
+ * <li>tokenisation with {@link SimpleNameTokeniser},</li>
+ * <li>conversion of tokens to lower case, character by character and 
+ * independently of the default locale,</li>
+ * <li>expansion of contracted modal verbs as {@link Modals#expand(List)}, 
+ * or with a given {@link ExpansionDictionary},</li>
+ * <li>handling of 'sub' as {@link SubTool#process(List, SubTool.Policy)}, 
+ * or of other prefixes as {@link PrefixTool#process(List, SubTool.Policy)}.</li>
+ * </ol>
+ * The tokens produced are the same as those obtained by applying each 
+ * stage to the whole list of tokens in turn, but each token passes 
+ * through every stage as soon as it is found and no intermediate lists 
+ * are created. The exception is expansion with a dictionary holding 
+ * phrases of several tokens, for which the tokens of the name are 
+ * collected and expanded together. Either way, tokens are matched 
+ * against the dictionary exactly, after any conversion to lower case.
+ * 
+ * <p>
+ * Instances are immutable and thread safe, and are created with a 
+ * {@link Builder}: 
+ * </p>
+ * <pre>{@code
+ * IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+ *         .lowerCase( true )
+ *         .expandModals( true )
+ *         .subPolicy( SubTool.Policy.EXPAND )
+ *         .build();
+ * }</pre>
+ */
+public final class IdentifierNormaliser {
+
+    private final boolean lowerCase;
+    private final boolean expandModals;
+    // null to use the dictionary current in Modals
+    private final ExpansionDictionary expansions;
+    private final SubTool.Policy subPolicy;
+    private final PrefixTool prefixes;
+
+    private IdentifierNormaliser( Builder builder ) {
+        this.lowerCase = builder.lowerCase;
+        this.expandModals = builder.expandModals;
+        this.expansions = builder.expansions;
+        this.subPolicy = builder.subPolicy;
+        this.prefixes = builder.prefixes;
+    }
+
+    /**
+     * Creates a builder with all stages apart from tokenisation disabled.
+     * @return a builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Normalises the given name.
+     * @param name a name
+     * @return a list of the normalised tokens found in the name
+     */
+    public List<String> normalise( CharSequence name ) {
+        return normalise( name, dictionary() );
+    }
+
+    /**
+     * Normalises the given name, expanding contractions with the given 
+     * dictionary.
+     * @param name a name
+     * @param dictionary the dictionary returned by {@link #dictionary()}
+     * @return a list of the normalised tokens found in the name
+     */
+    List<String> normalise( CharSequence name, ExpansionDictionary dictionary ) {
+        List<String> tokens = new ArrayList<>();
+        normalise( name, dictionary, new StringBuilder( name.length() ), 
+                ( source, start, end ) -> tokens.add( (String) source ) );
+        return tokens;
+    }
+
+    /**
+     * Retrieves the dictionary the next name would be expanded with, 
+     * which may change if the dictionary current in {@link Modals} is 
+     * used.
+     * @return a dictionary, or {@code null} if contractions are not 
+     * expanded
+     */
+    ExpansionDictionary dictionary() {
+        return ! this.expandModals ? null 
+                : this.expansions != null ? this.expansions 
+                : Modals.dictionary();
+    }
+
+    /**
+     * Normalises the given name, passing each normalised token to the sink 
+     * as it is produced. Each token is presented as the whole of a 
+     * {@code String}, i.e. {@code source} is the token, {@code start} is 
+     * zero and {@code end} is its length.
+     * @param name a name
+     * @param sink the receiver for the tokens
+     * @return the number of tokens passed to the sink
+     */
+    public int normalise( CharSequence name, TokenSink sink ) {
+        return normalise( name, new StringBuilder( name.length() ), sink );
+    }
+
+    /**
+     * Normalises the given name as {@link #normalise(CharSequence, TokenSink)},
+     * using a caller supplied buffer to assemble tokens, so a buffer may 
+     * be reused for many names. Tokens are matched against the 
+     * dictionary and the prefixes without creating strings, and a string 
+     * is only created for each token passed to the sink.
+     * @param name a name
+     * @param buffer an empty buffer, which is left empty
+     * @param sink the receiver for the tokens
+     * @return the number of tokens passed to the sink
+     */
+    public int normalise( CharSequence name, StringBuilder buffer, TokenSink sink ) {
+        // the same dictionary is used for the whole name
+        return normalise( name, dictionary(), buffer, sink );
+    }
+
+    private int normalise( 
+            CharSequence name, 
+            ExpansionDictionary dictionary, 
+            StringBuilder buffer, 
+            TokenSink sink ) {
+        int count = 0;
+        int position = 0;
+        long span;
+        if ( dictionary != null && dictionary.longestEntryLength() > 1 ) {
+            // phrases span tokens, so the tokens are expanded together
+            List<String> tokens = new ArrayList<>();
+            while ( ( span = SimpleNameTokeniser.nextToken( name, position ) ) 
+                    != SimpleNameTokeniser.NO_TOKEN ) {
+                position = SimpleNameTokeniser.tokenEnd( span );
+                tokens.add( token( name, SimpleNameTokeniser.tokenStart( span ), 
+                        position, this.lowerCase, buffer ) );
+            }
+            for ( String word : dictionary.expand( tokens ) ) {
+                count += add( word, 0, word.length(), false, buffer, sink );
+            }
+            return count + finish( buffer, sink );
+        }
+
+        while ( ( span = SimpleNameTokeniser.nextToken( name, position ) ) 
+                != SimpleNameTokeniser.NO_TOKEN ) {
+            int start = SimpleNameTokeniser.tokenStart( span );
+            position = SimpleNameTokeniser.tokenEnd( span );
+
+            List<String> expansion = dictionary == null ? null 
+                    : expansionOf( dictionary, name, start, position, buffer );
+            if ( expansion == null ) {
+                count += add( name, start, position, this.lowerCase, buffer, sink );
+            }
+            else {
+                for ( int i = 0; i < expansion.size(); i++ ) {
+                    String word = expansion.get( i );
+                    count += add( word, 0, word.length(), false, buffer, sink );
+                }
+            }
+        }
+        return count + finish( buffer, sink );
+    }
+
+    // matches the token exactly once converted to lower case, as the 
+    // phrase path and the separate stages do, using the end of the buffer
+    private List<String> expansionOf( 
+            ExpansionDictionary dictionary, 
+            CharSequence name, 
+            int start, 
+            int end, 
+            StringBuilder buffer ) {
+        if ( ! this.lowerCase ) {
+            return dictionary.expansionOf( name, start, end );
+        }
+        int mark = buffer.length();
+        append( name, start, end, true, buffer );
+        List<String> expansion = dictionary.expansionOf( buffer, mark, buffer.length() );
+        buffer.setLength( mark );
+        return expansion;
+    }
+
+    // applies the 'sub' policy to a word and passes the results on, 
+    // returning the number of tokens passed to the sink. A prefix held 
+    // back by CONCATENATE is kept in the buffer until the next word.
+    private int add( 
+            CharSequence source, 
+            int start, 
+            int end, 
+            boolean lowerCase, 
+            StringBuilder buffer, 
+            TokenSink sink ) {
+        if ( this.subPolicy == SubTool.Policy.CONCATENATE ) {
+            if ( buffer.length() > 0 ) {
+                append( source, start, end, lowerCase, buffer );
+                return emit( buffer.toString(), buffer, sink );
+            }
+            if ( this.prefixes.isPrefix( source, start, end ) ) {
+                append( source, start, end, lowerCase, buffer );
+                return 0;
+            }
+        }
+        else if ( this.subPolicy == SubTool.Policy.EXPAND ) {
+            int length = this.prefixes.prefixLength( source, start, end );
+            if ( length > 0 ) {
+                emit( token( source, start, start + length, lowerCase, buffer ), buffer, sink );
+                return 1 + emit( token( source, start + length, end, lowerCase, buffer ), 
+                        buffer, sink );
+            }
+        }
+        return emit( token( source, start, end, lowerCase, buffer ), buffer, sink );
+    }
+
+    // passes on a prefix still held back at the end of the name
+    private static int finish( StringBuilder buffer, TokenSink sink ) {
+        return buffer.length() > 0 ? emit( buffer.toString(), buffer, sink ) : 0;
+    }
+
+    private static int emit( String token, StringBuilder buffer, TokenSink sink ) {
+        buffer.setLength( 0 );
+        sink.accept( token, 0, token.length() );
+        return 1;
+    }
+
+    // creates a string from a span, using the end of the buffer to 
+    // convert it to lower case
+    private static String token( 
+            CharSequence source, 
+            int start, 
+            int end, 
+            boolean lowerCase, 
+            StringBuilder buffer ) {
+        if ( ! lowerCase ) {
+            return source.subSequence( start, end ).toString();
+        }
+        int mark = buffer.length();
+        append( source, start, end, true, buffer );
+        String token = buffer.substring( mark );
+        buffer.setLength( mark );
+        return token;
+    }
+
+    private static void append( 
+            CharSequence source, 
+            int start, 
+            int end, 
+            boolean lowerCase, 
+            StringBuilder buffer ) {
+        if ( ! lowerCase ) {
+            buffer.append( source, start, end );
+            return;
+        }
+        for ( int i = start; i < end; ) {
+            int codePoint = Character.codePointAt( source, i );
+            buffer.appendCodePoint( Character.toLowerCase( codePoint ) );
+            i += Character.charCount( codePoint );
+        }
+    }
+
+    /**
+     * Configures and creates {@code IdentifierNormaliser} instances. 
+     * Builders are not thread safe, but may be reused to create several 
+     * normalisers.
+     */
+    public static final class Builder {
+        private boolean lowerCase = false;
+        private boolean expandModals = false;
+        private ExpansionDictionary expansions = null;
+        private SubTool.Policy subPolicy = null;
+        private PrefixTool prefixes = PrefixTool.SUB;
+
+        private Builder() {}
+
+        /**
+         * Sets whether tokens are converted to lower case.
+         * @param lowerCase {@code true} to convert tokens to lower case
+         * @return this builder
+         */
+        public Builder lowerCase( boolean lowerCase ) {
+            this.lowerCase = lowerCase;
+            return this;
+        }
+
+        /**
+         * Sets whether contracted modal verbs are expanded.
+         * @param expandModals {@code true} to expand contractions
+         * @return this builder
+         */
+        public Builder expandModals( boolean expandModals ) {
+            this.expandModals = expandModals;
+            return this;
+        }
+
+        /**
+         * Sets the dictionary used to expand contractions when 
+         * contractions are expanded.
+         * @param expansions a dictionary, or {@code null} to use the 
+         * dictionary current in {@link Modals} when each name is 
+         * normalised
+         * @return this builder
+         */
+        public Builder expansions( ExpansionDictionary expansions ) {
+            this.expansions = expansions;
+            return this;
+        }
+
+        /**
+         * Sets the policy applied to 'sub'.
+         * @param subPolicy a policy, or {@code null} to leave 'sub' 
+         * untouched
+         * @return this builder
+         */
+        public Builder subPolicy( SubTool.Policy subPolicy ) {
+            this.subPolicy = subPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the prefixes the policy set by {@link #subPolicy} is 
+         * applied to, which are 'sub' alone unless set.
+         * @param prefixes the prefixes, e.g. {@link PrefixTool#COMMON}
+         * @return this builder
+         * @throws IllegalArgumentException if {@code prefixes} is null
+         */
+        public Builder prefixes( PrefixTool prefixes ) {
+            if ( prefixes == null ) {
+                throw new IllegalArgumentException( "null prefixes passed to Builder" );
+            }
+            this.prefixes = prefixes;
+            return this;
+        }
+
+        /**
+         * Creates a normaliser with the current configuration.
+         * @return a normaliser
+         */
+        public IdentifierNormaliser build() {
+            return new IdentifierNormaliser( this );
+        }
+    }
+}
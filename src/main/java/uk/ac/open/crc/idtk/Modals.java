@@ -15,72 +15,102 @@
  */
 package uk.ac.open.crc.idtk;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
  * Provides a service that expands contracted modal verbs. 
  * 
+ * <p>
+ * The contractions are held by an {@link ExpansionDictionary}, which is 
+ * the built in dictionary unless another is set. The dictionary may be 
+ * replaced at any time without blocking callers: each call uses the 
+ * dictionary current when it started, so an expansion in progress is 
+ * never affected by a replacement. Contractions may be looked up by the
+ * content of a span of a name, ignoring case, without creating a string. 
+ * </p>
  */
 public class Modals {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger( Modals.class );
+    // null while the built in dictionary is used, so that it is not 
+    // loaded until it is needed, nor at all if another is set first
+    private static final AtomicReference<ExpansionDictionary> dictionary = 
+            new AtomicReference<>();
     
-    private static final HashMap<String,ArrayList<String>> contractionsMap;
+    /**
+     * Retrieves the dictionary currently used.
+     * @return a dictionary
+     */
+    public static ExpansionDictionary dictionary() {
+	ExpansionDictionary current = dictionary.get();
+	return current != null ? current : ExpansionDictionary.builtIn();
+    }
     
-    static {
-        contractionsMap = new HashMap<>();
-        InputStream inStream = 
-                Modals.class.getResourceAsStream( "/contractions.txt" );
-        try ( BufferedReader in = new BufferedReader(new InputStreamReader(inStream)) ) {
-            String line;
-
-            // read file
-            while ((line = in.readLine()) != null) {
-                String[] tokens = line.split(",");
-                // sanity check
-                if ( tokens.length == 2 ) {
-                    String[] modalTokens = tokens[1].split( " " );
-                    ArrayList<String> modalPhrase = new ArrayList<>();
-                    modalPhrase.add( modalTokens[0] );
-                    modalPhrase.add( modalTokens[1] );
-                    contractionsMap.put( tokens[0], modalPhrase );
-                }
-            }
-        }
-        catch( IOException e ) {
-            LOGGER.error(
-                    "problem instantiating Modal Expansion component:{}", 
-                    e.getMessage() );
-            throw new IllegalStateException( 
-                    "Could not instantiate Modal Expansion Component. "
-                            + "Refer error to developer." );
-        }
+    /**
+     * Replaces the dictionary used by this class and by normalisers that
+     * do not have their own.
+     * @param expansions a dictionary, or {@code null} to restore the 
+     * built in dictionary
+     * @return the dictionary replaced, which may be the built in 
+     * dictionary, so that it can be restored by passing it back
+     */
+    public static ExpansionDictionary setDictionary(ExpansionDictionary expansions) {
+	ExpansionDictionary previous = dictionary.getAndSet( expansions );
+	return previous != null ? previous : ExpansionDictionary.builtIn();
+    }
+    
+    /**
+     * Atomically replaces the dictionary with one derived from it, e.g. 
+     * {@code Modals.updateDictionary( d -> d.plus( projectContractions ) )}.
+     * The function may be called more than once if the dictionary is 
+     * replaced concurrently, so should have no side effects.
+     * @param update creates a dictionary from the current dictionary
+     * @return the new dictionary
+     */
+    public static ExpansionDictionary updateDictionary(UnaryOperator<ExpansionDictionary> update) {
+	return dictionary.updateAndGet( 
+		current -> update.apply( current != null ? current : ExpansionDictionary.builtIn() ) );
     }
     
     public static boolean isModal(String token) {
-	return contractionsMap.containsKey(token);
+	return dictionary().isContraction( token );
     } 
     
+    /**
+     * Tests whether a span of a character sequence is a contraction, 
+     * ignoring case. 
+     * @param source a character sequence, e.g. a name
+     * @param start the index of the first character of the span
+     * @param end the index following the last character of the span
+     * @return {@code true} if the span is a contraction
+     */
+    public static boolean isModalIgnoreCase(CharSequence source, int start, int end) {
+	return dictionary().isContractionIgnoreCase( source, start, end );
+    }
+    
+    /**
+     * Retrieves the expansion of a span of a character sequence, ignoring
+     * case. The expansion is shared.
+     * @param source a character sequence, e.g. a name
+     * @param start the index of the first character of the span
+     * @param end the index following the last character of the span
+     * @return an unmodifiable list of words, or {@code null} if the span 
+     * is not a contraction
+     */
+    public static List<String> expansionIgnoreCase(CharSequence source, int start, int end) {
+	return dictionary().expansionIgnoreCase( source, start, end );
+    }
+    
+    /**
+     * Expands any contractions in a list of tokens. Most lists contain no
+     * contractions, and are returned as they are rather than copied.
+     * @param tokens a list of tokens
+     * @return a new list holding the expanded tokens, or {@code tokens} 
+     * itself if none is a contraction
+     */
     public static List<String> expand(List<String> tokens) {
-	List<String> expanded = new ArrayList<>();
-	
-	tokens.forEach( (token) -> {
-	    if ( isModal( token ) ) {
-		expanded.addAll( contractionsMap.get( token ) );
-	    }
-	    else {
-		expanded.add( token );
-	    }
-	} );
-	return expanded;
+	return dictionary().expand( tokens );
     }
     
 }
@@ -0,0 +1,405 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds dotted names, such as package names and the fully qualified 
+ * names of types, as a trie of their segments, so that a prefix shared 
+ * by many names, e.g. {@code org.apache.commons}, is held once. Each 
+ * node represents the dotted name made by the segments on the path to 
+ * it, and is identified by a dense {@code int}, with {@link #ROOT} 
+ * representing the empty name. Segments are interned in a 
+ * {@link TokenDictionary}.
+ * 
+ * <p>
+ * Type names added to the trie share a single string per node for their
+ * package names and fully qualified names, and can be retrieved by 
+ * package, e.g. all the types in 
+ * {@code java.util} and the packages within it. Prefixes are matched by 
+ * whole segments, so {@code java.util} is not a prefix of 
+ * {@code java.utilities}. The type names hold no reference to the trie, 
+ * so type names that are not added to a trie are no larger; the node of
+ * a type's package is found by {@link #nodeOf(TypeName)}.
+ * </p>
+ * 
+ * <p>
+ * Instances are thread safe.
+ * </p>
+ */
+public final class PackageTrie {
+
+    /** The node of the empty name. */
+    public static final int ROOT = 0;
+
+    /** Value returned by lookups for names that are not present. */
+    public static final int NOT_FOUND = -1;
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final long EMPTY = -1L;
+
+    private final TokenDictionary segments = new TokenDictionary();
+
+    private int[] parents;
+    private int[] segmentIds;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    // the dotted name of each node, created when first needed
+    private String[] names;
+    // the types added in the package of each node, each mapped to 
+    // itself so an equal type finds the instance held, or null
+    private final List<Map<TypeName, TypeName>> types = new ArrayList<>();
+    private int size;
+
+    // maps ( parent, segment id ) keys to child nodes
+    private long[] childKeys;
+    private int[] children;
+    private int mask;
+
+    /**
+     * Creates a trie holding only the root.
+     */
+    public PackageTrie() {
+        this.parents = new int[ DEFAULT_CAPACITY ];
+        this.segmentIds = new int[ DEFAULT_CAPACITY ];
+        this.firstChildren = new int[ DEFAULT_CAPACITY ];
+        this.nextSiblings = new int[ DEFAULT_CAPACITY ];
+        this.names = new String[ DEFAULT_CAPACITY ];
+        this.childKeys = new long[ DEFAULT_CAPACITY * 2 ];
+        Arrays.fill( this.childKeys, EMPTY );
+        this.children = new int[ DEFAULT_CAPACITY * 2 ];
+        this.mask = this.childKeys.length - 1;
+
+        addNode( NOT_FOUND, NOT_FOUND );
+        this.names[ ROOT ] = "";
+    }
+
+    /**
+     * Retrieves the node of a dotted name, adding nodes for any of its 
+     * segments that are not present.
+     * @param name a dotted name
+     * @return the node of the name
+     */
+    public synchronized int intern( CharSequence name ) {
+        if ( name.length() == 0 ) {
+            return ROOT;
+        }
+
+        int node = ROOT;
+        int start = 0;
+        int end;
+        do {
+            end = indexOfDot( name, start );
+            int segmentId = this.segments.intern( name, start, end );
+            int child = child( node, segmentId );
+            node = child == NOT_FOUND ? addNode( node, segmentId ) : child;
+            start = end + 1;
+        } while ( end < name.length() );
+
+        if ( this.names[ node ] == null && name instanceof String ) {
+            // share the string rather than creating another
+            this.names[ node ] = (String) name;
+        }
+        return node;
+    }
+
+    /**
+     * Retrieves the node of a dotted name.
+     * @param name a dotted name
+     * @return the node of the name, or {@link #NOT_FOUND}
+     */
+    public synchronized int find( CharSequence name ) {
+        if ( name.length() == 0 ) {
+            return ROOT;
+        }
+
+        int node = ROOT;
+        int start = 0;
+        int end;
+        do {
+            end = indexOfDot( name, start );
+            int segmentId = this.segments.lookup( name, start, end );
+            if ( segmentId == TokenDictionary.NOT_FOUND ) {
+                return NOT_FOUND;
+            }
+            node = child( node, segmentId );
+            if ( node == NOT_FOUND ) {
+                return NOT_FOUND;
+            }
+            start = end + 1;
+        } while ( end < name.length() );
+
+        return node;
+    }
+
+    /**
+     * Retrieves the dotted name of a node. The same string is returned 
+     * each time for a node.
+     * @param node a node
+     * @return a dotted name
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public synchronized String name( int node ) {
+        checkNode( node );
+        String name = this.names[ node ];
+        if ( name == null ) {
+            String parentName = name( this.parents[ node ] );
+            String segment = this.segments.token( this.segmentIds[ node ] );
+            name = this.parents[ node ] == ROOT ? segment : parentName + '.' + segment;
+            this.names[ node ] = name;
+        }
+        return name;
+    }
+
+    /**
+     * Retrieves the last segment of the dotted name of a node.
+     * @param node a node
+     * @return a segment, or the empty string for the root
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public synchronized String segment( int node ) {
+        checkNode( node );
+        return node == ROOT ? "" : this.segments.token( this.segmentIds[ node ] );
+    }
+
+    /**
+     * Retrieves the parent of a node.
+     * @param node a node
+     * @return a node, or {@link #NOT_FOUND} for the root
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public synchronized int parent( int node ) {
+        checkNode( node );
+        return this.parents[ node ];
+    }
+
+    /**
+     * Tests whether a node is an ancestor of another, or the same node.
+     * @param node a node
+     * @param ancestor a possible ancestor
+     * @return {@code true} if the dotted name of {@code ancestor} is a 
+     * prefix, by whole segments, of the dotted name of {@code node}
+     * @throws IndexOutOfBoundsException if either is not a node
+     */
+    public synchronized boolean isUnder( int node, int ancestor ) {
+        checkNode( node );
+        checkNode( ancestor );
+        for ( int current = node; current != NOT_FOUND; current = this.parents[ current ] ) {
+            if ( current == ancestor ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reports the number of nodes, including the root.
+     * @return a count of nodes
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Adds a type name, interning its package name and fully qualified 
+     * name, and those of its type arguments. A type name with a 
+     * {@code null} package name is placed at the root. A type name equal 
+     * to one already added is not added again.
+     * @param typeName a type name
+     * @return a type name equal to the one given, which uses the strings
+     * held by the trie, and is the instance already held if an equal 
+     * type name was added before
+     */
+    public synchronized TypeName add( TypeName typeName ) {
+        int node = packageNode( typeName.packageName() );
+        while ( this.types.size() <= node ) {
+            this.types.add( null );
+        }
+        Map<TypeName, TypeName> typesInPackage = this.types.get( node );
+        if ( typesInPackage == null ) {
+            typesInPackage = new LinkedHashMap<>( 2 );
+            this.types.set( node, typesInPackage );
+        }
+        TypeName shared = typesInPackage.get( typeName );
+        if ( shared == null ) {
+            shared = share( typeName );
+            typesInPackage.put( shared, shared );
+        }
+        return shared;
+    }
+
+    /**
+     * Finds the node of the package of a type name.
+     * @param typeName a type name
+     * @return the node of its package, which is {@link #ROOT} for a 
+     * {@code null} package name, or {@link #NOT_FOUND}
+     */
+    public synchronized int nodeOf( TypeName typeName ) {
+        String packageName = typeName.packageName();
+        return packageName == null ? ROOT : find( packageName );
+    }
+
+    /**
+     * Retrieves the type names added in a package.
+     * @param packageName a package name
+     * @return the type names, in the order they were added
+     */
+    public synchronized List<TypeName> typesIn( CharSequence packageName ) {
+        int node = find( packageName );
+        if ( node == NOT_FOUND || node >= this.types.size() || this.types.get( node ) == null ) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>( this.types.get( node ).keySet() );
+    }
+
+    /**
+     * Retrieves the type names added in a package and in the packages 
+     * within it, e.g. {@code java.util} and {@code java.util.concurrent}
+     * for {@code java.util}. 
+     * @param packageName a package name
+     * @return the type names, by package depth first
+     */
+    public synchronized List<TypeName> typesUnder( CharSequence packageName ) {
+        List<TypeName> found = new ArrayList<>();
+        int node = find( packageName );
+        if ( node != NOT_FOUND ) {
+            collectTypes( node, found );
+        }
+        return found;
+    }
+
+    private void collectTypes( int node, List<TypeName> found ) {
+        if ( node < this.types.size() && this.types.get( node ) != null ) {
+            found.addAll( this.types.get( node ).keySet() );
+        }
+        for ( int child = this.firstChildren[ node ]; 
+                child != NOT_FOUND; 
+                child = this.nextSiblings[ child ] ) {
+            collectTypes( child, found );
+        }
+    }
+
+    private TypeName share( TypeName typeName ) {
+        List<TypeName> typeArguments = new ArrayList<>( typeName.parameterCount() );
+        for ( int i = 0; i < typeName.parameterCount(); i++ ) {
+            typeArguments.add( share( typeName.parameterAt( i ) ) );
+        }
+
+        String packageName = typeName.packageName();
+        return new TypeName( 
+                typeName, 
+                packageName == null ? null : name( packageNode( packageName ) ), 
+                name( intern( typeName.fqn() ) ), 
+                typeArguments );
+    }
+
+    private int packageNode( String packageName ) {
+        return packageName == null ? ROOT : intern( packageName );
+    }
+
+    private int child( int parent, int segmentId ) {
+        long key = key( parent, segmentId );
+        int slot = slot( key );
+        while ( this.childKeys[ slot ] != EMPTY ) {
+            if ( this.childKeys[ slot ] == key ) {
+                return this.children[ slot ];
+            }
+            slot = ( slot + 1 ) & this.mask;
+        }
+        return NOT_FOUND;
+    }
+
+    private int addNode( int parent, int segmentId ) {
+        if ( this.size == this.parents.length ) {
+            int capacity = this.size * 2;
+            this.parents = Arrays.copyOf( this.parents, capacity );
+            this.segmentIds = Arrays.copyOf( this.segmentIds, capacity );
+            this.firstChildren = Arrays.copyOf( this.firstChildren, capacity );
+            this.nextSiblings = Arrays.copyOf( this.nextSiblings, capacity );
+            this.names = Arrays.copyOf( this.names, capacity );
+        }
+
+        int node = this.size++;
+        this.parents[ node ] = parent;
+        this.segmentIds[ node ] = segmentId;
+        this.firstChildren[ node ] = NOT_FOUND;
+        this.nextSiblings[ node ] = NOT_FOUND;
+
+        if ( parent != NOT_FOUND ) {
+            this.nextSiblings[ node ] = this.firstChildren[ parent ];
+            this.firstChildren[ parent ] = node;
+            putChild( key( parent, segmentId ), node );
+        }
+        return node;
+    }
+
+    private void putChild( long key, int node ) {
+        if ( this.size * 4 > this.childKeys.length * 3 ) {
+            long[] oldKeys = this.childKeys;
+            int[] oldChildren = this.children;
+            this.childKeys = new long[ oldKeys.length * 2 ];
+            Arrays.fill( this.childKeys, EMPTY );
+            this.children = new int[ oldKeys.length * 2 ];
+            this.mask = this.childKeys.length - 1;
+            for ( int i = 0; i < oldKeys.length; i++ ) {
+                if ( oldKeys[ i ] != EMPTY ) {
+                    insert( oldKeys[ i ], oldChildren[ i ] );
+                }
+            }
+        }
+        insert( key, node );
+    }
+
+    private void insert( long key, int node ) {
+        int slot = slot( key );
+        while ( this.childKeys[ slot ] != EMPTY ) {
+            slot = ( slot + 1 ) & this.mask;
+        }
+        this.childKeys[ slot ] = key;
+        this.children[ slot ] = node;
+    }
+
+    private int slot( long key ) {
+        long hash = key * 0x9e3779b97f4a7c15L;
+        return (int) ( hash ^ ( hash >>> 32 ) ) & this.mask;
+    }
+
+    private void checkNode( int node ) {
+        if ( node < 0 || node >= this.size ) {
+            throw new IndexOutOfBoundsException( 
+                    String.format( "node %d, size %d", node, this.size ) );
+        }
+    }
+
+    private static long key( int parent, int segmentId ) {
+        return ( (long) parent << 32 ) | ( segmentId & 0xffffffffL );
+    }
+
+    private static int indexOfDot( CharSequence name, int start ) {
+        int index = start;
+        while ( index < name.length() && name.charAt( index ) != '.' ) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Applies the policies of {@link SubTool} to a set of bound prefixes, 
+ * such as 'sub', 'super' and 'non'. With {@link SubTool.Policy#CONCATENATE}
+ * a token that is a prefix is joined to the token that follows it, e.g. 
+ * 'non', 'blocking' becomes 'nonblocking'. With 
+ * {@link SubTool.Policy#EXPAND} a token that starts with a prefix is 
+ * split after the prefix, e.g. 'superclass' becomes 'super', 'class'. 
+ * Where several prefixes match, the longest is used. As with 
+ * {@code SubTool}, the transformations are applied blindly, so words such
+ * as 'reason' and 'under' are split too.
+ * 
+ * <p>
+ * Prefixes are matched ignoring case, as 
+ * {@link String#regionMatches(boolean, int, String, int, int)} does. The 
+ * prefixes are indexed by their case folded first character, which is 
+ * the first level of a trie, and the few candidates for a token are 
+ * compared character by character, longest first, so tokens are 
+ * tested without creating strings. Lists are processed in a single pass 
+ * and are only copied once a token is changed.
+ * </p>
+ * 
+ * <p>
+ * Instances are immutable and thread safe.
+ * </p>
+ */
+public final class PrefixTool {
+
+    // declared before the presets, which use them when created
+    private static final int NONE = -1;
+    private static final int[] NO_CANDIDATES = {};
+
+    /** Handles 'sub' alone, as {@link SubTool} does. */
+    public static final PrefixTool SUB = of( "sub" );
+
+    /** 
+     * Handles the common bound prefixes 'sub', 'super', 'pre', 'non', 
+     * 'un', 'multi' and 're'. 
+     */
+    public static final PrefixTool COMMON = 
+            of( "sub", "super", "pre", "non", "un", "multi", "re" );
+
+    // in order of decreasing length
+    private final String[] prefixes;
+    // candidates for tokens starting with each folded ASCII character, 
+    // as indexes of prefixes
+    private final int[][] asciiCandidates;
+    // candidates for tokens starting with other characters
+    private final int[] otherCandidates;
+    private final Set<String> prefixSet;
+
+    private PrefixTool( Collection<String> prefixes ) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for ( String prefix : prefixes ) {
+            if ( prefix == null || prefix.isEmpty() ) {
+                throw new IllegalArgumentException( "null or empty prefix passed to PrefixTool" );
+            }
+            distinct.add( prefix.toLowerCase( Locale.ROOT ) );
+        }
+        this.prefixes = distinct.toArray( new String[ 0 ] );
+        Arrays.sort( this.prefixes, Comparator.comparingInt( String::length ).reversed() );
+        this.prefixSet = Collections.unmodifiableSet( distinct );
+
+        this.asciiCandidates = new int[ 128 ][];
+        Arrays.fill( this.asciiCandidates, NO_CANDIDATES );
+        int[] others = NO_CANDIDATES;
+        for ( int i = 0; i < this.prefixes.length; i++ ) {
+            char first = CharacterClass.foldCase( this.prefixes[ i ].charAt( 0 ) );
+            if ( first < 128 ) {
+                this.asciiCandidates[ first ] = append( this.asciiCandidates[ first ], i );
+            }
+            else {
+                others = append( others, i );
+            }
+        }
+        this.otherCandidates = others;
+    }
+
+    /**
+     * Creates a tool for a set of prefixes.
+     * @param prefixes the prefixes, in any case
+     * @return a tool
+     * @throws IllegalArgumentException if a prefix is null or empty
+     */
+    public static PrefixTool of( String... prefixes ) {
+        return of( Arrays.asList( prefixes ) );
+    }
+
+    /**
+     * Creates a tool for a set of prefixes.
+     * @param prefixes the prefixes, in any case
+     * @return a tool
+     * @throws IllegalArgumentException if a prefix is null or empty
+     */
+    public static PrefixTool of( Collection<String> prefixes ) {
+        return new PrefixTool( prefixes );
+    }
+
+    /**
+     * Retrieves the prefixes handled.
+     * @return an unmodifiable set of the prefixes, in lower case
+     */
+    public Set<String> prefixes() {
+        return this.prefixSet;
+    }
+
+    /**
+     * Finds the length of the longest prefix a token starts with, 
+     * ignoring case.
+     * @param token a string
+     * @return the length of the prefix, or 0 if the token starts with 
+     * none
+     */
+    public int prefixLength( String token ) {
+        return prefixLength( token, 0, token.length() );
+    }
+
+    /**
+     * Finds the length of the longest prefix a span of a character 
+     * sequence starts with, ignoring case.
+     * @param source a character sequence
+     * @param start the index of the first character of the span
+     * @param end the index following the last character of the span
+     * @return the length of the prefix, or 0 if the span starts with none
+     */
+    int prefixLength( CharSequence source, int start, int end ) {
+        int prefix = longestPrefix( source, start, end );
+        return prefix == NONE ? 0 : this.prefixes[ prefix ].length();
+    }
+
+    /**
+     * A case insensitive test of whether a token starts with a prefix.
+     * @param token a string
+     * @return {@code true} if the token starts with a prefix
+     */
+    public boolean hasPrefix( String token ) {
+        return longestPrefix( token, 0, token.length() ) != NONE;
+    }
+
+    /**
+     * A case insensitive test of whether a token is a prefix.
+     * @param token a string
+     * @return {@code true} if the token is a prefix
+     */
+    public boolean isPrefix( String token ) {
+        return isPrefix( token, 0, token.length() );
+    }
+
+    /**
+     * A case insensitive test of whether a span of a character sequence 
+     * is a prefix.
+     * @param source a character sequence
+     * @param start the index of the first character of the span
+     * @param end the index following the last character of the span
+     * @return {@code true} if the span is a prefix
+     */
+    boolean isPrefix( CharSequence source, int start, int end ) {
+        int prefix = longestPrefix( source, start, end );
+        return prefix != NONE && this.prefixes[ prefix ].length() == end - start;
+    }
+
+    /**
+     * Applies a policy to a list of tokens.
+     * @param tokens a list of tokens
+     * @param policy whether to concatenate or expand prefixes
+     * @return a new list holding the processed tokens, or {@code tokens}
+     * itself if no token is changed
+     */
+    public List<String> process( List<String> tokens, SubTool.Policy policy ) {
+        boolean concatenate = policy == SubTool.Policy.CONCATENATE;
+        List<String> processed = null;
+        int size = tokens.size();
+        for ( int i = 0; i < size; i++ ) {
+            String token = tokens.get( i );
+            int prefix = longestPrefix( token, 0, token.length() );
+            if ( prefix != NONE ) {
+                int length = this.prefixes[ prefix ].length();
+                if ( concatenate && length == token.length() && i < size - 1 ) {
+                    processed = copy( processed, tokens, i );
+                    processed.add( token + tokens.get( ++i ) );
+                    continue;
+                }
+                if ( ! concatenate ) {
+                    processed = copy( processed, tokens, i );
+                    processed.add( token.substring( 0, length ) );
+                    processed.add( token.substring( length ) );
+                    continue;
+                }
+            }
+            if ( processed != null ) {
+                processed.add( token );
+            }
+        }
+        return processed == null ? tokens : processed;
+    }
+
+    // finds the index of the longest prefix of the span, or NONE
+    private int longestPrefix( CharSequence source, int start, int end ) {
+        if ( start == end ) {
+            return NONE;
+        }
+        char first = CharacterClass.foldCase( source.charAt( start ) );
+        int[] candidates = first < 128 ? this.asciiCandidates[ first ] : this.otherCandidates;
+        for ( int candidate : candidates ) {
+            if ( startsWith( source, start, end, this.prefixes[ candidate ] ) ) {
+                return candidate;
+            }
+        }
+        return NONE;
+    }
+
+    // compares case folded characters, as String.regionMatches does
+    private static boolean startsWith( CharSequence source, int start, int end, String prefix ) {
+        if ( end - start < prefix.length() ) {
+            return false;
+        }
+        for ( int i = 0; i < prefix.length(); i++ ) {
+            if ( CharacterClass.foldCase( source.charAt( start + i ) ) 
+                    != CharacterClass.foldCase( prefix.charAt( i ) ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // copies the unchanged tokens preceding the first changed token
+    private static List<String> copy( List<String> processed, List<String> tokens, int end ) {
+        if ( processed != null ) {
+            return processed;
+        }
+        List<String> copy = new ArrayList<>( tokens.size() + 4 );
+        copy.addAll( tokens.subList( 0, end ) );
+        return copy;
+    }
+
+    private static int[] append( int[] values, int value ) {
+        int[] appended = Arrays.copyOf( values, values.length + 1 );
+        appended[ values.length ] = value;
+        return appended;
+    }
+}
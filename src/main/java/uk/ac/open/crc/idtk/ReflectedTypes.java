@@ -0,0 +1,142 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Creates type names from reflected types, using the same conventions as
+ * {@link SignatureParser}: '$' separates the names of nested classes, 
+ * type variables have no package name, the unbounded wildcard has the 
+ * identifier name "?" and a bounded wildcard is represented by its bound.
+ * The type name of each class is created once and held for as long as 
+ * the class is loaded.
+ */
+final class ReflectedTypes {
+
+    private static final String WILDCARD = "?";
+
+    private static final ClassValue<TypeName> classTypeNames = new ClassValue<TypeName>() {
+        @Override
+        protected TypeName computeValue( Class<?> type ) {
+            return classTypeName( type );
+        }
+    };
+
+    /**
+     * Creates a type name for a reflected type.
+     * @param type a type
+     * @return a type name
+     * @throws IllegalArgumentException if the type is null or is not a 
+     * class, parameterised type, generic array type, wildcard type or 
+     * type variable
+     */
+    static TypeName from( Type type ) {
+        if ( type instanceof Class ) {
+            return classTypeNames.get( (Class<?>) type );
+        }
+        if ( type instanceof ParameterizedType ) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            TypeName rawType = from( parameterizedType.getRawType() );
+            // the type arguments of any owner type are not kept
+            Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
+            List<TypeName> typeArguments = new ArrayList<>( actualTypeArguments.length );
+            for ( Type typeArgument : actualTypeArguments ) {
+                typeArguments.add( from( typeArgument ) );
+            }
+            return new TypeName( 
+                    rawType.identifierName(), 
+                    rawType.packageName(), 
+                    rawType.fqn(), 
+                    0, 
+                    typeArguments );
+        }
+        if ( type instanceof GenericArrayType ) {
+            TypeName component = from( ( (GenericArrayType) type ).getGenericComponentType() );
+            return new TypeName( 
+                    component.identifierName(), 
+                    component.packageName(), 
+                    component.fqn(), 
+                    component.arrayDimensions() + 1, 
+                    component.parameterisedTypesView() );
+        }
+        if ( type instanceof WildcardType ) {
+            WildcardType wildcardType = (WildcardType) type;
+            Type[] lowerBounds = wildcardType.getLowerBounds();
+            if ( lowerBounds.length > 0 ) {
+                return from( lowerBounds[ 0 ] );
+            }
+            Type[] upperBounds = wildcardType.getUpperBounds();
+            if ( upperBounds.length > 0 && upperBounds[ 0 ] != Object.class ) {
+                return from( upperBounds[ 0 ] );
+            }
+            return simpleType( WILDCARD, 0 );
+        }
+        if ( type instanceof TypeVariable ) {
+            return simpleType( ( (TypeVariable<?>) type ).getName(), 0 );
+        }
+
+        throw new IllegalArgumentException( 
+                "unsupported type passed to TypeName.from(): " + type );
+    }
+
+    private static TypeName classTypeName( Class<?> type ) {
+        int arrayDimensions = 0;
+        while ( type.isArray() ) {
+            arrayDimensions++;
+            type = type.getComponentType();
+        }
+        if ( type.isPrimitive() ) {
+            return simpleType( type.getName(), arrayDimensions );
+        }
+
+        // the binary name has '.' between package names, and '$' between 
+        // the names of nested classes except at either end of the name
+        String binaryName = type.getName();
+        int lastDot = binaryName.lastIndexOf( '.' );
+        int nameStart = lastDot + 1;
+        char[] qualifiedName = binaryName.toCharArray();
+        int lastSeparator = lastDot;
+        for ( int index = nameStart + 1; index < qualifiedName.length - 1; index++ ) {
+            if ( qualifiedName[ index ] == '$' ) {
+                qualifiedName[ index ] = '.';
+                lastSeparator = index;
+            }
+        }
+        String fqn = new String( qualifiedName );
+
+        return new TypeName( 
+                fqn.substring( lastSeparator + 1 ), 
+                lastDot < 0 ? "" : fqn.substring( 0, lastDot ), 
+                fqn, 
+                arrayDimensions, 
+                Collections.emptyList() );
+    }
+
+    private static TypeName simpleType( String name, int arrayDimensions ) {
+        return new TypeName( name, "", "", arrayDimensions, Collections.emptyList() );
+    }
+
+    private ReflectedTypes() {}
+}
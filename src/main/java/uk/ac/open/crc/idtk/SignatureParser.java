@@ -0,0 +1,263 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Creates type names from JVM field descriptors and generic type 
+ * signatures, as found in class files. The class names in descriptors 
+ * are written with '/' between the package name and the class name, so
+ * the package name is known exactly, and '$' is taken to separate the 
+ * names of nested classes.
+ * 
+ * <p>
+ * Wildcards are given the identifier name "?", and bounded wildcards are 
+ * represented by their bound, e.g. {@code List<? extends Number>} by 
+ * {@code List<Number>}. For an inner class of a parameterised type, e.g.
+ * {@code Outer<K>.Inner<V>}, only the type arguments of the inner class 
+ * are kept. Type arguments may be array types.
+ * </p>
+ * 
+ * <p>
+ * Only field types are parsed, so {@code V}, which is only valid as the 
+ * return type of a method, is rejected in every position.
+ * </p>
+ */
+final class SignatureParser {
+
+    private static final String WILDCARD = "?";
+
+    private final String source;
+    // whether generic signatures, rather than descriptors, are parsed
+    private final boolean generic;
+    private int position;
+
+    private SignatureParser( String source, boolean generic ) {
+        this.source = source;
+        this.generic = generic;
+    }
+
+    /**
+     * Parses a field descriptor, e.g. {@code [Ljava/lang/String;}.
+     * @param descriptor a field descriptor
+     * @return a type name
+     * @throws IllegalArgumentException if the descriptor is null, empty
+     * or malformed
+     */
+    static TypeName parseDescriptor( String descriptor ) {
+        return new SignatureParser( descriptor, false ).parseAll();
+    }
+
+    /**
+     * Parses a type signature, e.g. 
+     * {@code Ljava/util/Map<Ljava/lang/String;[I>;}.
+     * @param signature a type signature
+     * @return a type name
+     * @throws IllegalArgumentException if the signature is null, empty
+     * or malformed
+     */
+    static TypeName parseSignature( String signature ) {
+        return new SignatureParser( signature, true ).parseAll();
+    }
+
+    private TypeName parseAll() {
+        if ( this.source == null || this.source.isEmpty() ) {
+            throw new IllegalArgumentException( 
+                    "null or empty " + kind() + " passed to TypeName" );
+        }
+
+        TypeName typeName = type();
+        if ( this.position != this.source.length() ) {
+            throw malformed();
+        }
+        return typeName;
+    }
+
+    private TypeName type() {
+        int arrayDimensions = 0;
+        while ( peek() == '[' ) {
+            arrayDimensions++;
+            this.position++;
+        }
+
+        char tag = next();
+        switch ( tag ) {
+            case 'B':
+                return simpleType( "byte", arrayDimensions );
+            case 'C':
+                return simpleType( "char", arrayDimensions );
+            case 'D':
+                return simpleType( "double", arrayDimensions );
+            case 'F':
+                return simpleType( "float", arrayDimensions );
+            case 'I':
+                return simpleType( "int", arrayDimensions );
+            case 'J':
+                return simpleType( "long", arrayDimensions );
+            case 'S':
+                return simpleType( "short", arrayDimensions );
+            case 'Z':
+                return simpleType( "boolean", arrayDimensions );
+            case 'L':
+                return classType( arrayDimensions );
+            case 'T':
+                if ( this.generic ) {
+                    String typeVariable = name();
+                    expect( ';' );
+                    return simpleType( typeVariable, arrayDimensions );
+                }
+                throw malformed();
+            default:
+                throw malformed();
+        }
+    }
+
+    // primitive types, type variables and wildcards have no package
+    // name or type arguments
+    private static TypeName simpleType( String name, int arrayDimensions ) {
+        return new TypeName( name, "", "", arrayDimensions, Collections.emptyList() );
+    }
+
+    // the 'L' has been read
+    private TypeName classType( int arrayDimensions ) {
+        int start = this.position;
+        int lastSlash = -1;
+        char c;
+        while ( ( c = peek() ) != ';' && c != '<' && c != '.' ) {
+            if ( c == '/' ) {
+                lastSlash = this.position;
+            }
+            this.position++;
+        }
+        int end = this.position;
+        int nameStart = lastSlash < 0 ? start : lastSlash + 1;
+        if ( nameStart == end || lastSlash == start ) {
+            throw malformed();
+        }
+
+        // the fully qualified name is the class name with '/' and '$' 
+        // replaced, except for a '$' at either end of the binary name, 
+        // which is part of a name
+        char[] qualifiedName = new char[ end - start ];
+        int lastSeparator = lastSlash;
+        for ( int index = start; index < end; index++ ) {
+            char character = this.source.charAt( index );
+            if ( character == '/' 
+                    || ( character == '$' && index > nameStart && index < end - 1 ) ) {
+                character = '.';
+                lastSeparator = index;
+            }
+            qualifiedName[ index - start ] = character;
+        }
+        String fqn = new String( qualifiedName );
+        String packageName = lastSlash < 0 ? "" : fqn.substring( 0, lastSlash - start );
+        String identifierName = fqn.substring( lastSeparator < 0 ? 0 : lastSeparator + 1 - start );
+
+        List<TypeName> typeArguments = typeArguments();
+        // an inner class of a parameterised type
+        while ( this.generic && peek() == '.' ) {
+            this.position++;
+            identifierName = name();
+            fqn = fqn + '.' + identifierName;
+            typeArguments = typeArguments();
+        }
+        expect( ';' );
+
+        return new TypeName( 
+                identifierName, 
+                packageName, 
+                fqn, 
+                arrayDimensions, 
+                typeArguments );
+    }
+
+    private List<TypeName> typeArguments() {
+        if ( peek() != '<' ) {
+            return Collections.emptyList();
+        }
+        if ( ! this.generic ) {
+            throw malformed();
+        }
+        this.position++;
+
+        List<TypeName> typeArguments = new ArrayList<>();
+        do {
+            char c = peek();
+            if ( c == '*' ) {
+                this.position++;
+                typeArguments.add( simpleType( WILDCARD, 0 ) );
+            }
+            else {
+                if ( c == '+' || c == '-' ) {
+                    this.position++;
+                }
+                typeArguments.add( type() );
+            }
+        } while ( peek() != '>' );
+        this.position++;
+
+        return typeArguments;
+    }
+
+    // a simple name in a signature, ended by ';', '<' or '.'
+    private String name() {
+        int start = this.position;
+        char c;
+        while ( ( c = peek() ) != ';' && c != '<' && c != '.' && c != '/' ) {
+            this.position++;
+        }
+        if ( start == this.position ) {
+            throw malformed();
+        }
+        return this.source.substring( start, this.position );
+    }
+
+    // the next character, or throws if the source has been consumed
+    private char peek() {
+        if ( this.position == this.source.length() ) {
+            throw malformed();
+        }
+        return this.source.charAt( this.position );
+    }
+
+    private char next() {
+        char c = peek();
+        this.position++;
+        return c;
+    }
+
+    private void expect( char expected ) {
+        if ( next() != expected ) {
+            throw malformed();
+        }
+    }
+
+    private IllegalArgumentException malformed() {
+        return new IllegalArgumentException( String.format( 
+                "malformed %s \"%s\" at index %d", 
+                kind(), 
+                this.source, 
+                this.position ) );
+    }
+
+    private String kind() {
+        return this.generic ? "type signature" : "field descriptor";
+    }
+}
@@ -18,25 +18,24 @@
 package uk.ac.open.crc.idtk;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collector;
 
 /**
  * A very simple, conservative name splitter. Only splits on underscores and 
  * lower case to upper case boundaries.
  */
 public class SimpleNameTokeniser {
-    private static final Pattern separatorPattern;
-    private static final Pattern lcUcPattern;
 
-    static {
-        separatorPattern = Pattern.compile( "[\\_\\$]+" );
-	lcUcPattern = Pattern.compile("\\p{Ll}\\p{Lu}");
-    }
+    /**
+     * Value returned by {@link #nextToken(CharSequence, int)} when no 
+     * further tokens remain.
+     */
+    static final long NO_TOKEN = -1L;
 
     /**
      * Tokenises the given name.
@@ -44,49 +43,337 @@ public class SimpleNameTokeniser {
      * @return a list of tokens found in the name
      */
     public static List<String> split( String name ) {
-        List<String> firstPassTokens = tokeniseOnSeparators( name );
+        List<String> tokens = new ArrayList<>();
+        int position = 0;
+        long span;
 
-        List<String> tokens = tokeniseOnLowercaseToUppercase( firstPassTokens );
+        while ( ( span = nextToken( name, position ) ) != NO_TOKEN ) {
+            position = tokenEnd( span );
+            tokens.add( name.substring( tokenStart( span ), position ) );
+        }
 
         return tokens;
     }
-    
+
+    /**
+     * Tokenises each of the given names, spreading the work across the 
+     * common fork/join pool. 
+     * @param names an array of names
+     * @return a list of the tokens found in each name, in the same order 
+     * as the names
+     */
+    public static List<List<String>> splitAll( String[] names ) {
+        @SuppressWarnings( { "rawtypes", "unchecked" } )
+        List<String>[] results = new List[ names.length ];
+        int leafSize = Math.max( 
+                BatchTask.MINIMUM_LEAF_SIZE, 
+                names.length / ( ForkJoinPool.getCommonPoolParallelism() * 8 ) );
+
+        ForkJoinPool.commonPool().invoke( 
+                new BatchTask( names, results, 0, names.length, leafSize ) );
+
+        return Arrays.asList( results );
+    }
+
+    /**
+     * Creates a spliterator that tokenises the given names as it traverses
+     * them, for use with {@code StreamSupport.stream()}. The spliterator 
+     * splits evenly and reports exact sizes, so parallel streams make good
+     * use of the available cores.
+     * @param names an array of names
+     * @return a spliterator over the tokens found in each name
+     */
+    public static Spliterator<List<String>> spliterator( String[] names ) {
+        return new TokenisingSpliterator( names, 0, names.length );
+    }
+
+    /**
+     * Creates a collector that tokenises each name in a stream. The 
+     * collector may be used with parallel streams and keeps the 
+     * encounter order of the stream.
+     * @return a collector producing a list of the tokens found in each name
+     */
+    public static Collector<String, ?, List<List<String>>> toTokenLists() {
+        return Collector.of( 
+                ArrayList::new,
+                ( List<List<String>> lists, String name ) -> lists.add( split( name ) ),
+                ( left, right ) -> {
+                    left.addAll( right );
+                    return left;
+                } );
+    }
+
+    /**
+     * Tokenises the given name, passing each token to the sink as it is 
+     * found. No strings or collections are created.
+     * @param name a name
+     * @param sink the receiver for the tokens
+     * @return the number of tokens found in the name
+     */
+    public static int split( CharSequence name, TokenSink sink ) {
+        int count = 0;
+        int position = 0;
+        long span;
+
+        while ( ( span = nextToken( name, position ) ) != NO_TOKEN ) {
+            position = tokenEnd( span );
+            sink.accept( name, tokenStart( span ), position );
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Records the boundaries of the tokens in the given name without 
+     * creating any token strings. Any spans already held by {@code spans} 
+     * are discarded.
+     * @param name a name
+     * @param spans the holder the token boundaries are written to
+     * @return the number of tokens found in the name
+     */
+    public static int splitOffsets( CharSequence name, TokenSpans spans ) {
+        spans.clear();
+        int position = 0;
+        long span;
+
+        while ( ( span = nextToken( name, position ) ) != NO_TOKEN ) {
+            position = tokenEnd( span );
+            spans.add( tokenStart( span ), position );
+        }
+
+        return spans.size();
+    }
+
+    /**
+     * Records the boundaries of the tokens in a region of a buffer of 
+     * characters without creating any token strings. The region is 
+     * tokenised as a single name, so names packed into a buffer with an 
+     * underscore or dollar sign between them give the tokens of each name
+     * in turn. Token boundaries are recorded as indices into the buffer. 
+     * Any spans already held by {@code spans} are discarded.
+     * 
+     * <p>
+     * ASCII text is processed 64 characters at a time, which makes this 
+     * method better suited to long names and large buffers than 
+     * {@link #splitOffsets(CharSequence, TokenSpans)}. The tokens found 
+     * are the same.
+     * </p>
+     * @param buffer a buffer of characters
+     * @param from the index of the first character of the region
+     * @param to the index following the last character of the region
+     * @param spans the holder the token boundaries are written to
+     * @return the number of tokens found in the region
+     * @throws IndexOutOfBoundsException if the region is not within 
+     * the buffer
+     */
+    public static int splitOffsets( char[] buffer, int from, int to, TokenSpans spans ) {
+        if ( from < 0 || to > buffer.length || from > to ) {
+            throw new IndexOutOfBoundsException( String.format( 
+                    "region [%d, %d) of a buffer of length %d", from, to, buffer.length ) );
+        }
+        spans.clear();
+        BoundaryDetector.split( buffer, from, to, spans );
+        return spans.size();
+    }
+
     /**
-     * Provides a naive camel case splitter to work on character only string.
+     * Records the boundaries of the tokens in the given name as pairs of 
+     * start (inclusive) and end (exclusive) indices, so that token 
+     * {@code i} occupies {@code out[2i]} and {@code out[2i + 1]}. Only the 
+     * pairs that fit in {@code out} are written, but all tokens are 
+     * counted, so a caller can detect a short array by comparing twice the
+     * returned count with its length.
+     * @param name a name
+     * @param out the array the token boundaries are written to
+     * @return the number of tokens found in the name
+     */
+    public static int splitOffsets( CharSequence name, int[] out ) {
+        int count = 0;
+        int position = 0;
+        long span;
+
+        while ( ( span = nextToken( name, position ) ) != NO_TOKEN ) {
+            position = tokenEnd( span );
+            if ( count * 2 + 1 < out.length ) {
+                out[ count * 2 ] = tokenStart( span );
+                out[ count * 2 + 1 ] = position;
+            }
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Tokenises the given name into the identifiers of its tokens, adding 
+     * any tokens not yet seen to the dictionary. No token strings are 
+     * created.
+     * @param name a name
+     * @param dictionary the dictionary that assigns token identifiers
+     * @return the identifiers of the tokens found in the name, in order
+     */
+    public static int[] splitToIds( CharSequence name, TokenDictionary dictionary ) {
+        int[] ids = new int[ 4 ];
+        int count = 0;
+        int position = 0;
+        long span;
+
+        while ( ( span = nextToken( name, position ) ) != NO_TOKEN ) {
+            position = tokenEnd( span );
+            if ( count == ids.length ) {
+                ids = Arrays.copyOf( ids, count * 2 );
+            }
+            ids[ count++ ] = dictionary.intern( name, tokenStart( span ), position );
+        }
+
+        return count == ids.length ? ids : Arrays.copyOf( ids, count );
+    }
+
+    /**
+     * Tokenises the given name into the identifiers of its tokens, adding 
+     * any tokens not yet seen to the dictionary. As with 
+     * {@link #splitOffsets(CharSequence, int[])}, only the identifiers 
+     * that fit in {@code out} are written, but all tokens are counted and 
+     * added to the dictionary.
+     * @param name a name
+     * @param dictionary the dictionary that assigns token identifiers
+     * @param out the array the token identifiers are written to
+     * @return the number of tokens found in the name
+     */
+    public static int splitToIds( 
+            CharSequence name, 
+            TokenDictionary dictionary, 
+            int[] out ) {
+        int count = 0;
+        int position = 0;
+        long span;
+
+        while ( ( span = nextToken( name, position ) ) != NO_TOKEN ) {
+            position = tokenEnd( span );
+            int id = dictionary.intern( name, tokenStart( span ), position );
+            if ( count < out.length ) {
+                out[ count ] = id;
+            }
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Finds the next token in a name in a single scan. Runs of underscores
+     * and dollar signs separate tokens and are discarded, and a token is
+     * ended wherever a lower case letter is followed by an upper case
+     * letter.
      *
-     * @param name a character only string
-     * @return an Array list of components of the input string that result from
-     * splitting on LCUC boundaries.
+     * <p>
+     * Letters are classified by {@link CharacterClass}, i.e. by Unicode 
+     * general category exactly as the {@code \p{Ll}} and {@code \p{Lu}} 
+     * regular expression classes the tokeniser used to rely on. For the 
+     * same reason, where the upper case letter is a supplementary 
+     * character the boundary falls one {@code char} before its end, i.e. 
+     * between the surrogates.
+     * </p>
+     *
+     * @param name the name being tokenised
+     * @param from the index to start searching from, normally the end of 
+     * the previous token
+     * @return the start and end of the token packed into a {@code long}, 
+     * or {@link #NO_TOKEN} if there are no more tokens
      */
-    private static List<String> tokeniseOnLowercaseToUppercase( String name ) {
-	ArrayList<String> splits = new ArrayList<>();
-        Matcher matcher = lcUcPattern.matcher(name);
-	int start = 0;
-	while ( matcher.find() ) {
-	    splits.add(name.substring(start, matcher.end() - 1));
-	    start = matcher.end() - 1;
-	}
-	splits.add(name.substring(start, name.length()));
+    static long nextToken( CharSequence name, int from ) {
+        int length = name.length();
+        int index = from;
+
+        while ( index < length && isSeparator( name.charAt( index ) ) ) {
+            index++;
+        }
+
+        if ( index == length ) {
+            return NO_TOKEN;
+        }
+
+        int start = index;
+        boolean previousIsLowerCase = false;
+
+        while ( index < length ) {
+            char current = name.charAt( index );
+            byte characterClass;
+            int charCount;
+            if ( current < 128 ) {
+                characterClass = CharacterClass.ofAscii( current );
+                charCount = 1;
+            }
+            else {
+                int codePoint = Character.codePointAt( name, index );
+                characterClass = CharacterClass.of( codePoint );
+                charCount = Character.charCount( codePoint );
+            }
+
+            if ( characterClass == CharacterClass.SEPARATOR ) {
+                break;
+            }
+            if ( previousIsLowerCase && characterClass == CharacterClass.UPPER ) {
+                return span( start, index + charCount - 1 );
+            }
 
-        return splits;
+            previousIsLowerCase = characterClass == CharacterClass.LOWER;
+            index += charCount;
+        }
+
+        return span( start, index );
+    }
+
+    static int tokenStart( long span ) {
+        return (int) ( span >>> 32 );
     }
 
-    private static List<String> tokeniseOnLowercaseToUppercase( List<String> tokens ) {
-        List<String> splits = new ArrayList<>();
+    static int tokenEnd( long span ) {
+        return (int) span;
+    }
 
-        tokens.stream().forEach( (token) -> {
-            splits.addAll( tokeniseOnLowercaseToUppercase( token ) );
-        } );
+    private static long span( int start, int end ) {
+        return ( (long) start << 32 ) | end;
+    }
 
-        return splits;
+    private static boolean isSeparator( char c ) {
+        return c < 128 && CharacterClass.ofAscii( c ) == CharacterClass.SEPARATOR;
     }
 
-    private static List<String> tokeniseOnSeparators( String name ) {
-        List<String> splits = separatorPattern.splitAsStream(name)
-	    .filter(s -> s.length() > 0)
-	    .collect(Collectors.toList());
+    private static final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        static final int MINIMUM_LEAF_SIZE = 256;
+
+        private final String[] names;
+        private final List<String>[] results;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        BatchTask( String[] names, List<String>[] results, int from, int to, int leafSize ) {
+            this.names = names;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
 
-        return splits;
+        @Override
+        protected void compute() {
+            if ( this.to - this.from <= this.leafSize ) {
+                for ( int i = this.from; i < this.to; i++ ) {
+                    this.results[ i ] = split( this.names[ i ] );
+                }
+            }
+            else {
+                int middle = ( this.from + this.to ) >>> 1;
+                invokeAll( 
+                        new BatchTask( this.names, this.results, this.from, middle, this.leafSize ),
+                        new BatchTask( this.names, this.results, middle, this.to, this.leafSize ) );
+            }
+        }
     }
 
     // prevent instantiation as this class only provides static services
@@ -16,7 +16,6 @@
 
 package uk.ac.open.crc.idtk;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,6 +30,11 @@ import java.util.List;
  * 'submarine' - this functionality is likely to move to another library 
  * at some point, and the obvious improvement may be made then.
  * 
+ * <p>
+ * This class is the preset of {@link PrefixTool} for 'sub', 
+ * {@link PrefixTool#SUB}. Use {@code PrefixTool} to apply the same 
+ * policies to other prefixes.
+ * </p>
  */
 public class SubTool {
     public enum Policy {
@@ -45,10 +49,9 @@ public class SubTool {
      * @return {@code true} if the token begins with 'sub' regardless of case
      */
     public static boolean hasSubPrefix(String token) {
-	return token.toLowerCase().startsWith( "sub" );        
+	return PrefixTool.SUB.hasPrefix( token );
     }
     
-    
     /**
      * A case insensitive test of whether any of the supplied tokens 
      * begins with 'sub'.
@@ -56,7 +59,12 @@ public class SubTool {
      * @return {@code true} if any token begins with 'sub' regardless of case
      */
     public static boolean hasSubPrefix(List<String> tokens) {
-	return tokens.stream().anyMatch( SubTool::hasSubPrefix );        
+	for (String token : tokens) {
+	    if (PrefixTool.SUB.hasPrefix( token )) {
+		return true;
+	    }
+	}
+	return false;
     }
     
     /**
@@ -66,7 +74,12 @@ public class SubTool {
      * @return {@code true} if any token is 'sub' regardless of case
      */
     public static boolean containsSub(List<String> tokens) {
-	return tokens.stream().anyMatch( SubTool::isSub );        
+	for (String token : tokens) {
+	    if (PrefixTool.SUB.isPrefix( token )) {
+		return true;
+	    }
+	}
+	return false;
     }
     
     /**
@@ -76,62 +89,18 @@ public class SubTool {
      * @return {@code true} if the token is 'sub' regardless of case
      */
     public static boolean isSub(String token) {
-	return "sub".equalsIgnoreCase(token);
+	return PrefixTool.SUB.isPrefix( token );
     }
     
     /**
      * Process a list of tokens to apply the stated policy to the tokens.
+     * The list is processed in a single pass, and returned as it is if 
+     * no token is changed.
      * @param tokens a list of tokens to process
      * @param policy either to expand or concatenate tokens in the list
      * @return a processed list of tokens
      */
     public static List<String> process(List<String> tokens, Policy policy) {
-	if (policy == Policy.CONCATENATE) {
-	    return concatenate(tokens);
-	}
-	else {
-	    return expand(tokens);
-	}
-    }
-    
-    private static List<String> concatenate(List<String> tokens) {
-	if (! containsSub(tokens)) {
-	    return tokens;
-	}
-	
-	List<String> concatenatedTokens = new ArrayList<>();
-	
-	for (int i = 0; i < tokens.size(); i++) {
-	    String token = tokens.get( i );
-	    if ( isSub(token) && i < tokens.size() - 1 ) {
-		concatenatedTokens.add(token + tokens.get( i + 1 ));
-		i++;
-	    }
-	    else {
-		concatenatedTokens.add(token);
-	    }
-	}
-	
-	return concatenatedTokens;
-    }
-    
-    private static List<String> expand(List<String> tokens) {
-	if (! hasSubPrefix(tokens) ) {
-	    return tokens;
-	}
-	
-	List<String> expandedTokens = new ArrayList<>();
-	
-	tokens.forEach( token -> { 
-	    if (hasSubPrefix(token)) {
-		expandedTokens.add( token.substring( 0, 3) );
-		expandedTokens.add( token.substring( 3) );
-	    }
-	    else {
-		expandedTokens.add(token);
-	    }
-	});
-	
-	return expandedTokens;
+	return PrefixTool.SUB.process( tokens, policy );
     }
 }
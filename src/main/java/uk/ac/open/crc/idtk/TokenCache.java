@@ -0,0 +1,127 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An optional, bounded cache of the tokens found in names. Identifier 
+ * names repeat heavily in source code, so caching avoids tokenising 
+ * names such as {@code i} or {@code getName} again and again. 
+ * 
+ * <p>
+ * Instances are thread safe and may be shared. The lists returned are 
+ * unmodifiable and shared between callers. The cache evicts names seen 
+ * only once before those seen repeatedly, so it is not flushed by long 
+ * runs of unique names. {@link SimpleNameTokeniser} and 
+ * {@link IdentifierNormaliser} hold no cache of their own.
+ * </p>
+ * 
+ * <p>
+ * A cache in front of a normaliser that expands contractions with the 
+ * dictionary current in {@link Modals} is cleared when that dictionary 
+ * is replaced, so names are never returned with the expansions of a 
+ * previous dictionary.
+ * </p>
+ */
+public final class TokenCache {
+
+    private final Function<String, List<String>> loader;
+    private final BoundedCache<String, List<String>> cache;
+    // null for a cache in front of the tokeniser
+    private final IdentifierNormaliser normaliser;
+    // the dictionary the cached names were normalised with
+    private volatile ExpansionDictionary dictionary;
+
+    private TokenCache( 
+            Function<String, List<String>> tokeniser, 
+            IdentifierNormaliser normaliser, 
+            int maximumSize ) {
+        this.loader = name -> Collections.unmodifiableList( tokeniser.apply( name ) );
+        this.cache = new BoundedCache<>( maximumSize );
+        this.normaliser = normaliser;
+        this.dictionary = normaliser == null ? null : normaliser.dictionary();
+    }
+
+    /**
+     * Creates a cache in front of {@link SimpleNameTokeniser#split(String)}.
+     * @param maximumSize the maximum number of names cached
+     * @return a cache
+     * @throws IllegalArgumentException if {@code maximumSize} is less than 1
+     */
+    public static TokenCache forTokeniser( int maximumSize ) {
+        return new TokenCache( SimpleNameTokeniser::split, null, maximumSize );
+    }
+
+    /**
+     * Creates a cache in front of 
+     * {@link IdentifierNormaliser#normalise(CharSequence)}. The cache is 
+     * cleared whenever the dictionary the normaliser expands contractions
+     * with is replaced in {@link Modals}.
+     * @param normaliser a normaliser
+     * @param maximumSize the maximum number of names cached
+     * @return a cache
+     * @throws IllegalArgumentException if {@code maximumSize} is less than 1
+     */
+    public static TokenCache forNormaliser( 
+            IdentifierNormaliser normaliser, 
+            int maximumSize ) {
+        return new TokenCache( normaliser::normalise, normaliser, maximumSize );
+    }
+
+    /**
+     * Retrieves the tokens for a name, tokenising it if it is not cached.
+     * @param name a name
+     * @return an unmodifiable list of the tokens found in the name
+     */
+    public List<String> tokens( String name ) {
+        if ( this.normaliser == null ) {
+            return this.cache.get( name, this.loader );
+        }
+
+        ExpansionDictionary current = this.normaliser.dictionary();
+        if ( current != this.dictionary ) {
+            this.dictionary = current;
+            this.cache.clear();
+        }
+        List<String> tokens = this.cache.get( name, 
+                key -> Collections.unmodifiableList( this.normaliser.normalise( key, current ) ) );
+        // a name normalised while the dictionary was replaced may have 
+        // been cached after the cache was cleared
+        if ( this.normaliser.dictionary() != current ) {
+            this.cache.clear();
+        }
+        return tokens;
+    }
+
+    /**
+     * Takes a snapshot of the cache statistics.
+     * @return the statistics
+     */
+    public CacheStatistics statistics() {
+        return this.cache.statistics();
+    }
+
+    /**
+     * Discards all cached names. The statistics are not reset.
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+}
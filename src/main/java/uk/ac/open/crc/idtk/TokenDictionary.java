@@ -0,0 +1,259 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.Arrays;
+
+/**
+ * Maps each distinct token to a dense {@code int} identifier, starting 
+ * at zero. 
+ * 
+ * <p>
+ * The characters of all the tokens are held in a single array and are 
+ * found through an open addressing hash table keyed on their content, so 
+ * a span of a name can be looked up or added without first creating a 
+ * string. Holding a vocabulary this way needs a small fraction of the 
+ * memory needed for a {@code String} per token.
+ * </p>
+ * 
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+public final class TokenDictionary {
+
+    /** Value returned by lookups for tokens that are not present. */
+    public static final int NOT_FOUND = -1;
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final int EMPTY = -1;
+
+    private char[] characters;
+    private int characterCount;
+
+    // offsets[ id ] to offsets[ id + 1 ] bounds the characters of a token
+    private int[] offsets;
+    private int[] hashes;
+    private int size;
+
+    // slots hold token ids, or EMPTY
+    private int[] table;
+    private int mask;
+
+    /**
+     * Creates an empty dictionary.
+     */
+    public TokenDictionary() {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * Creates an empty dictionary sized for the given number of tokens.
+     * @param expectedTokens the number of distinct tokens expected
+     * @throws IllegalArgumentException if {@code expectedTokens} is negative
+     */
+    public TokenDictionary( int expectedTokens ) {
+        if ( expectedTokens < 0 ) {
+            throw new IllegalArgumentException( 
+                    "negative capacity passed to TokenDictionary constructor" );
+        }
+        int capacity = Math.max( 16, expectedTokens );
+        this.characters = new char[ capacity * 8 ];
+        this.offsets = new int[ capacity + 1 ];
+        this.hashes = new int[ capacity ];
+        this.table = new int[ tableSizeFor( capacity ) ];
+        Arrays.fill( this.table, EMPTY );
+        this.mask = this.table.length - 1;
+    }
+
+    /**
+     * Retrieves the identifier of a token, adding the token to the 
+     * dictionary if it is not present.
+     * @param token a token
+     * @return the identifier of the token
+     */
+    public int intern( CharSequence token ) {
+        return intern( token, 0, token.length() );
+    }
+
+    /**
+     * Retrieves the identifier of a span of a character sequence, adding 
+     * the span to the dictionary if it is not present.
+     * @param source a character sequence
+     * @param start the index of the first character of the token
+     * @param end the index following the last character of the token
+     * @return the identifier of the token
+     */
+    public int intern( CharSequence source, int start, int end ) {
+        int hash = hash( source, start, end );
+        int slot = find( source, start, end, hash );
+        int id = this.table[ slot ];
+        if ( id != EMPTY ) {
+            return id;
+        }
+
+        id = add( source, start, end, hash );
+        this.table[ slot ] = id;
+        if ( this.size * 4 > this.table.length * 3 ) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Retrieves the identifier of a token.
+     * @param token a token
+     * @return the identifier of the token, or {@link #NOT_FOUND}
+     */
+    public int lookup( CharSequence token ) {
+        return lookup( token, 0, token.length() );
+    }
+
+    /**
+     * Retrieves the identifier of a span of a character sequence.
+     * @param source a character sequence
+     * @param start the index of the first character of the token
+     * @param end the index following the last character of the token
+     * @return the identifier of the token, or {@link #NOT_FOUND}
+     */
+    public int lookup( CharSequence source, int start, int end ) {
+        int id = this.table[ find( source, start, end, hash( source, start, end ) ) ];
+        return id == EMPTY ? NOT_FOUND : id;
+    }
+
+    /**
+     * Creates a string for a token.
+     * @param id the identifier of a token
+     * @return the token
+     * @throws IndexOutOfBoundsException if {@code id} is not a token 
+     * identifier
+     */
+    public String token( int id ) {
+        checkId( id );
+        return new String( 
+                this.characters, 
+                this.offsets[ id ], 
+                this.offsets[ id + 1 ] - this.offsets[ id ] );
+    }
+
+    /**
+     * Reports the length of a token.
+     * @param id the identifier of a token
+     * @return the number of {@code char}s in the token
+     * @throws IndexOutOfBoundsException if {@code id} is not a token 
+     * identifier
+     */
+    public int length( int id ) {
+        checkId( id );
+        return this.offsets[ id + 1 ] - this.offsets[ id ];
+    }
+
+    /**
+     * Reports the number of distinct tokens held.
+     * @return a count of tokens
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private int add( CharSequence source, int start, int end, int hash ) {
+        int length = end - start;
+        if ( this.size == this.hashes.length ) {
+            this.hashes = Arrays.copyOf( this.hashes, this.size * 2 );
+            this.offsets = Arrays.copyOf( this.offsets, this.size * 2 + 1 );
+        }
+        if ( this.characterCount + length > this.characters.length ) {
+            this.characters = Arrays.copyOf( 
+                    this.characters, 
+                    Math.max( this.characters.length * 2, this.characterCount + length ) );
+        }
+
+        for ( int i = start; i < end; i++ ) {
+            this.characters[ this.characterCount++ ] = source.charAt( i );
+        }
+
+        int id = this.size++;
+        this.hashes[ id ] = hash;
+        this.offsets[ id + 1 ] = this.characterCount;
+        return id;
+    }
+
+    // finds the slot holding the token, or the empty slot it belongs in
+    private int find( CharSequence source, int start, int end, int hash ) {
+        int slot = hash & this.mask;
+        int id;
+        while ( ( id = this.table[ slot ] ) != EMPTY ) {
+            if ( this.hashes[ id ] == hash && contentEquals( id, source, start, end ) ) {
+                break;
+            }
+            slot = ( slot + 1 ) & this.mask;
+        }
+        return slot;
+    }
+
+    private boolean contentEquals( int id, CharSequence source, int start, int end ) {
+        int offset = this.offsets[ id ];
+        if ( this.offsets[ id + 1 ] - offset != end - start ) {
+            return false;
+        }
+        for ( int i = start; i < end; i++ ) {
+            if ( this.characters[ offset++ ] != source.charAt( i ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        this.table = new int[ this.table.length * 2 ];
+        Arrays.fill( this.table, EMPTY );
+        this.mask = this.table.length - 1;
+
+        for ( int id = 0; id < this.size; id++ ) {
+            int slot = this.hashes[ id ] & this.mask;
+            while ( this.table[ slot ] != EMPTY ) {
+                slot = ( slot + 1 ) & this.mask;
+            }
+            this.table[ slot ] = id;
+        }
+    }
+
+    private void checkId( int id ) {
+        if ( id < 0 || id >= this.size ) {
+            throw new IndexOutOfBoundsException( 
+                    String.format( "token id %d, size %d", id, this.size ) );
+        }
+    }
+
+    private static int hash( CharSequence source, int start, int end ) {
+        int hash = 0;
+        for ( int i = start; i < end; i++ ) {
+            hash = 31 * hash + source.charAt( i );
+        }
+        // spread the bits so that the low order bits index the table well
+        hash *= 0x9e3779b9;
+        return hash ^ ( hash >>> 16 );
+    }
+
+    private static int tableSizeFor( int capacity ) {
+        int size = 16;
+        while ( size * 3 < capacity * 4 ) {
+            size *= 2;
+        }
+        return size * 2;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+/**
+ * Receives tokens as they are found, so they can be consumed without 
+ * building an intermediate collection. A token is presented as a span of 
+ * a character sequence; implementations that need a string can create 
+ * one with {@code source.subSequence( start, end ).toString()}.
+ * 
+ * <p>
+ * The tokeniser holds no reference to the sink once a call returns, so 
+ * a single sink may be reused for any number of names. 
+ * </p>
+ */
+@FunctionalInterface
+public interface TokenSink {
+
+    /**
+     * Receives a single token.
+     * @param source the character sequence containing the token
+     * @param start the index of the first character of the token
+     * @param end the index following the last character of the token
+     */
+    void accept( CharSequence source, int start, int end );
+}
@@ -0,0 +1,141 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.Arrays;
+
+/**
+ * A reusable record of the boundaries of the tokens found in a name. Each 
+ * token is held as a start index (inclusive) and an end index (exclusive) 
+ * into the name, so no token strings are created. 
+ * 
+ * <p>
+ * Instances grow as needed and are intended to be reused across calls to
+ * {@link SimpleNameTokeniser#splitOffsets(CharSequence, TokenSpans)}. 
+ * They are not thread safe.
+ * </p>
+ */
+public final class TokenSpans {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private int[] offsets;
+    private int size;
+
+    /**
+     * Creates an empty instance.
+     */
+    public TokenSpans() {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * Creates an empty instance sized for the given number of tokens.
+     * @param expectedTokens the number of tokens expected per name
+     * @throws IllegalArgumentException if {@code expectedTokens} is negative
+     */
+    public TokenSpans( int expectedTokens ) {
+        if ( expectedTokens < 0 ) {
+            throw new IllegalArgumentException( 
+                    "negative capacity passed to TokenSpans constructor" );
+        }
+        this.offsets = new int[ Math.max( 1, expectedTokens ) * 2 ];
+    }
+
+    /**
+     * Reports the number of tokens recorded.
+     * @return a count of tokens
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Indicates whether any tokens are recorded.
+     * @return {@code true} if no tokens are recorded
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Retrieves the index of the first character of a token.
+     * @param index the index of the token
+     * @return the start of the token in the name
+     * @throws IndexOutOfBoundsException if there is no such token
+     */
+    public int start( int index ) {
+        checkIndex( index );
+        return this.offsets[ index * 2 ];
+    }
+
+    /**
+     * Retrieves the index following the last character of a token.
+     * @param index the index of the token
+     * @return the end of the token in the name
+     * @throws IndexOutOfBoundsException if there is no such token
+     */
+    public int end( int index ) {
+        checkIndex( index );
+        return this.offsets[ index * 2 + 1 ];
+    }
+
+    /**
+     * Retrieves the length of a token.
+     * @param index the index of the token
+     * @return the number of {@code char}s in the token
+     * @throws IndexOutOfBoundsException if there is no such token
+     */
+    public int length( int index ) {
+        return end( index ) - start( index );
+    }
+
+    /**
+     * Creates a string for a token. A convenience for callers that need 
+     * only some of the tokens as strings.
+     * @param name the name the spans were recorded for
+     * @param index the index of the token
+     * @return the token
+     * @throws IndexOutOfBoundsException if there is no such token
+     */
+    public String token( CharSequence name, int index ) {
+        return name.subSequence( start( index ), end( index ) ).toString();
+    }
+
+    /**
+     * Discards all recorded tokens, retaining the storage.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    void add( int start, int end ) {
+        if ( this.size * 2 == this.offsets.length ) {
+            this.offsets = Arrays.copyOf( this.offsets, this.offsets.length * 2 );
+        }
+        this.offsets[ this.size * 2 ] = start;
+        this.offsets[ this.size * 2 + 1 ] = end;
+        this.size++;
+    }
+
+    private void checkIndex( int index ) {
+        if ( index < 0 || index >= this.size ) {
+            throw new IndexOutOfBoundsException( 
+                    String.format( "token index %d, size %d", index, this.size ) );
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator that tokenises the names in a range of an array as it 
+ * traverses them. Ranges are split in half, so the sizes of the parts are
+ * known exactly and parallel streams divide the work evenly.
+ */
+final class TokenisingSpliterator implements Spliterator<List<String>> {
+
+    // ranges smaller than this are not split further
+    private static final int MINIMUM_SPLIT_SIZE = 64;
+
+    private final String[] names;
+    private int index;
+    private final int fence;
+
+    TokenisingSpliterator( String[] names, int origin, int fence ) {
+        this.names = names;
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance( Consumer<? super List<String>> action ) {
+        if ( this.index < this.fence ) {
+            action.accept( SimpleNameTokeniser.split( this.names[ this.index++ ] ) );
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining( Consumer<? super List<String>> action ) {
+        for ( int i = this.index; i < this.fence; i++ ) {
+            action.accept( SimpleNameTokeniser.split( this.names[ i ] ) );
+        }
+        this.index = this.fence;
+    }
+
+    @Override
+    public Spliterator<List<String>> trySplit() {
+        int origin = this.index;
+        int middle = ( origin + this.fence ) >>> 1;
+        if ( middle - origin < MINIMUM_SPLIT_SIZE ) {
+            return null;
+        }
+        this.index = middle;
+        return new TokenisingSpliterator( this.names, origin, middle );
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.fence - this.index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+}
@@ -15,8 +15,13 @@
  */
 package uk.ac.open.crc.idtk;
 
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Provides a simple representation of a Java type.
@@ -26,19 +31,34 @@ public class TypeName {
     public static final String NO_TYPE = "#no type#";
 
     private String fqn = "";
-    private String packageName = "";
+    // package name, type acronym and type arguments are null until they
+    // are first used when the type name is lazily evaluated
+    private volatile String packageName;
     private String identifierName;
     private String localTypeName; // the name the type is addressed by within 
     // the package. So records nested types
-    private List<TypeName> parameterisedTypes;
+    private volatile List<TypeName> parameterisedTypes;
 
     private String fullName;  // base name for the type, sans generics
 
 //    private boolean isResolved;  // flags whether the type is fully resolved -- only useful with a system that supports the resolution of type names
-    private final String typeAcronym;
+    private volatile String typeAcronym;
 
     private int arrayDimensions = 0;
 
+    // computed on first use, and may be computed more than once by 
+    // concurrent callers, as String.hashCode()
+    private int hash;
+
+    // the unparsed parts of a lazily evaluated type name, otherwise null
+    private final Deferred deferred;
+
+    // the most type names held by the canonicalising cache used by of()
+    private static final int CANONICAL_CACHE_SIZE = 16384;
+
+    private static final BoundedCache<String, TypeName> canonicalTypeNames = 
+            new BoundedCache<>( CANONICAL_CACHE_SIZE );
+
     /**
      * Create an instance given a type name as a string.
      *
@@ -53,17 +73,20 @@ public class TypeName {
                     "null or empty type name passed to TypeName constructor" );
         }
         
+        this.packageName = "";
+        this.deferred = null;
+
         if ( NO_TYPE.equals( typeNameString ) ) {
             // this is for the crude no type representation
             this.identifierName = typeNameString;
             this.fqn = typeNameString;
             this.typeAcronym = null;
+            this.parameterisedTypes = Collections.emptyList();
         }
         else {
-            this.parameterisedTypes = new ArrayList<>();
 //            this.isResolved = false;  // check the semantics for this
             // parse the string
-            this.parse( typeNameString );
+            this.parse( new Parser( typeNameString, false ), 0, typeNameString.length(), true );
             this.typeAcronym = makeTypeAcronym( this.identifierName );
         }
     }
@@ -76,15 +99,224 @@ public class TypeName {
      * @param typeNameString a type name 
      */
     public TypeName ( String packageName, String typeNameString ) {
-        this.parameterisedTypes = new ArrayList<>();
-
         this.packageName = packageName;
+        this.deferred = null;
 
-        this.parse( typeNameString );
+        this.parse( new Parser( typeNameString, false ), 0, typeNameString.length(), true );
 
         this.typeAcronym = makeTypeAcronym( this.identifierName );
     }
 
+    /**
+     * Creates a type name from a region of the string being parsed. 
+     * Behaves exactly as {@link #TypeName(String)} given the substring.
+     */
+    private TypeName ( Parser parser, int start, int end, boolean topLevel ) {
+        if ( start == end ) {
+            throw new IllegalArgumentException( 
+                    "null or empty type name passed to TypeName constructor" );
+        }
+
+        this.packageName = "";
+        this.deferred = null;
+
+        if ( parser.isNoType( start, end ) ) {
+            this.identifierName = NO_TYPE;
+            this.fqn = NO_TYPE;
+            this.typeAcronym = null;
+            this.parameterisedTypes = Collections.emptyList();
+        }
+        else {
+            this.parse( parser, start, end, topLevel );
+            this.typeAcronym = makeTypeAcronym( this.identifierName );
+        }
+    }
+
+    /**
+     * Creates a type name from parts that have already been worked out,
+     * e.g. by {@link TypeNameArena}. The type acronym is made from the 
+     * identifier name, except for the {@link #NO_TYPE} name.
+     */
+    TypeName ( 
+            String identifierName, 
+            String packageName, 
+            String fqn, 
+            int arrayDimensions, 
+            List<TypeName> typeArguments ) {
+        this.identifierName = identifierName;
+        this.packageName = packageName;
+        this.fqn = fqn;
+        this.arrayDimensions = arrayDimensions;
+        this.parameterisedTypes = unmodifiable( typeArguments );
+        this.deferred = null;
+        this.typeAcronym = NO_TYPE.equals( identifierName ) && NO_TYPE.equals( fqn ) 
+                ? null 
+                : makeTypeAcronym( identifierName );
+    }
+
+    /**
+     * Creates a copy of a type name that uses the strings held by a 
+     * package trie for its package name and fully qualified name. See 
+     * {@link PackageTrie#add(TypeName)}.
+     */
+    TypeName ( 
+            TypeName typeName, 
+            String packageName, 
+            String fqn, 
+            List<TypeName> typeArguments ) {
+        this.identifierName = typeName.identifierName;
+        this.packageName = packageName;
+        this.fqn = fqn;
+        this.arrayDimensions = typeName.arrayDimensions;
+        this.parameterisedTypes = unmodifiable( typeArguments );
+        this.typeAcronym = typeName.typeAcronym();
+        this.deferred = null;
+    }
+
+    /**
+     * Creates a lazily evaluated type name, see {@link #lazy(String)}.
+     * Only the identifier name, fully qualified name and array dimensions
+     * are found here.
+     */
+    private TypeName ( String typeNameString, boolean lazy ) {
+        int end = this.stripArrayDimensions( typeNameString, 0, typeNameString.length() );
+        int typeArgumentsStart = indexOfTypeArguments( typeNameString, 0, end );
+        int firstNestedDot = this.parseName( typeNameString, 0, typeArgumentsStart );
+        int packageEnd = firstNestedDot >= 0 
+                && startsWithLowerCase( typeNameString, 0, firstNestedDot ) 
+                ? firstNestedDot 
+                : -1;
+
+        this.deferred = new Deferred( typeNameString, packageEnd, typeArgumentsStart, end );
+    }
+
+    /**
+     * Retrieves a canonical instance for a type name string. Repeated 
+     * calls with the same string, and type arguments written the same way
+     * in different type names, resolve to a single shared instance while 
+     * it remains in a bounded, thread safe cache. Canonical instances 
+     * are equal to those created by {@link #TypeName(String)}.
+     *
+     * @param typeNameString a single string of the type name,
+     *                       e.g. "{@code java.util.HashMap<String,Object>}"
+     * @return a type name
+     * @throws IllegalArgumentException if a null or empty type name is 
+     * passed to the method
+     */
+    public static TypeName of ( String typeNameString ) {
+        if ( typeNameString == null || typeNameString.isEmpty() ) {
+            throw new IllegalArgumentException( 
+                    "null or empty type name passed to TypeName.of()" );
+        }
+
+        TypeName typeName = canonicalTypeNames.getIfPresent( typeNameString );
+        if ( typeName == null ) {
+            Parser parser = new Parser( typeNameString, true );
+            typeName = canonicalTypeNames.putIfAbsent( 
+                    typeNameString, 
+                    new TypeName( parser, 0, typeNameString.length(), true ) );
+        }
+        return typeName;
+    }
+
+    /**
+     * Creates a lazily evaluated type name. The identifier name, fully
+     * qualified name and array dimensions are found immediately. The 
+     * package name, type acronym and type arguments are worked out from 
+     * the retained string the first time they are used, so a type name 
+     * that is only used for its identifier name costs little more than 
+     * the string. The instance may be shared between threads, and is
+     * equal to one created by {@link #TypeName(String)}.
+     *
+     * <p>
+     * Because the type arguments are not parsed immediately, an 
+     * {@code IllegalArgumentException} for an empty type argument, e.g. 
+     * "{@code List<>}", is thrown the first time the type arguments, the 
+     * hash code or equality are used.
+     * </p>
+     *
+     * @param typeNameString a single string of the type name,
+     *                       e.g. "{@code java.util.HashMap<String,Object>}"
+     * @return a type name
+     * @throws IllegalArgumentException if a null or empty type name is 
+     * passed to the method
+     */
+    public static TypeName lazy ( String typeNameString ) {
+        if ( typeNameString == null || typeNameString.isEmpty() ) {
+            throw new IllegalArgumentException( 
+                    "null or empty type name passed to TypeName.lazy()" );
+        }
+
+        if ( NO_TYPE.equals( typeNameString ) ) {
+            return new TypeName( typeNameString );
+        }
+
+        return new TypeName( typeNameString, true );
+    }
+
+    /**
+     * Creates a type name from a JVM field descriptor, e.g. 
+     * "{@code [Ljava/lang/String;}", without first rewriting it as 
+     * source code. The package name is taken from the descriptor, and 
+     * '$' is taken to separate the names of nested classes, so 
+     * "{@code Ljava/util/Map$Entry;}" has the identifier name 
+     * {@code Entry}, the package name {@code java.util} and the fully 
+     * qualified name {@code java.util.Map.Entry}.
+     *
+     * @param descriptor a field descriptor
+     * @return a type name
+     * @throws IllegalArgumentException if the descriptor is null, empty 
+     * or malformed
+     */
+    public static TypeName fromDescriptor ( String descriptor ) {
+        return SignatureParser.parseDescriptor( descriptor );
+    }
+
+    /**
+     * Creates a type name from a generic type signature, as found in the 
+     * {@code Signature} attribute of a field, e.g. 
+     * "{@code Ljava/util/Map<Ljava/lang/String;[I>;}". Names are found as
+     * by {@link #fromDescriptor(String)}. Type variables become type 
+     * names without a package, the unbounded wildcard becomes a type name 
+     * with the identifier name "?", and a bounded wildcard is represented
+     * by its bound. Only the type arguments of the innermost class are 
+     * kept for an inner class of a parameterised type.
+     *
+     * @param signature a type signature
+     * @return a type name
+     * @throws IllegalArgumentException if the signature is null, empty 
+     * or malformed
+     */
+    public static TypeName fromSignature ( String signature ) {
+        return SignatureParser.parseSignature( signature );
+    }
+
+    /**
+     * Creates a type name from a reflected type by walking its structure,
+     * rather than parsing the string returned by 
+     * {@link Type#getTypeName()}. Names are found, and type variables and 
+     * wildcards represented, as by {@link #fromSignature(String)}. The 
+     * type name of each class is created once and held for as long as 
+     * the class is loaded.
+     *
+     * @param type a class, parameterised type, generic array type, 
+     * wildcard type or type variable
+     * @return a type name
+     * @throws IllegalArgumentException if the type is null or of another
+     * kind
+     */
+    public static TypeName from ( Type type ) {
+        return ReflectedTypes.from( type );
+    }
+
+    /**
+     * Reports the statistics of the cache used by {@link #of(String)}.
+     * @return a snapshot of the cache statistics
+     */
+    public static CacheStatistics canonicalCacheStatistics () {
+        return canonicalTypeNames.statistics();
+    }
+
     /**
      * Retrieves the identifier name of the class or interface type.
      * @return a name
@@ -99,7 +331,12 @@ public class TypeName {
      * @return a package name, or the empty string if it is not defined
      */
     public String packageName () {
-        return this.packageName;
+        String name = this.packageName;
+        if ( name == null && this.deferred != null ) {
+            name = this.deferred.packageName();
+            this.packageName = name;
+        }
+        return name;
     }
 
     /**
@@ -116,7 +353,63 @@ public class TypeName {
      * @return a list of type names
      */
     public List<TypeName> parameterisedTypes () {
-        return new ArrayList<>( this.parameterisedTypes );
+        return new ArrayList<>( this.typeArguments() );
+    }
+
+    /**
+     * Retrieves the parameterised types without copying them.
+     * @return an unmodifiable list of type names
+     */
+    public List<TypeName> parameterisedTypesView () {
+        return this.typeArguments();
+    }
+
+    /**
+     * Reports the number of parameterised types.
+     * @return a count of the type arguments
+     */
+    public int parameterCount () {
+        return this.typeArguments().size();
+    }
+
+    /**
+     * Retrieves a single parameterised type.
+     * @param index the index of the type argument
+     * @return a type name
+     * @throws IndexOutOfBoundsException if the index is negative or not 
+     * less than {@link #parameterCount()}
+     */
+    public TypeName parameterAt ( int index ) {
+        return this.typeArguments().get( index );
+    }
+
+    /**
+     * Walks the type name and its type arguments depth first, presenting
+     * each to the visitor before its type arguments. No lists are copied 
+     * or iterators created during the walk.
+     * @param visitor receives each type name
+     */
+    public void accept ( TypeNameVisitor visitor ) {
+        this.accept( visitor, 0 );
+    }
+
+    private void accept ( TypeNameVisitor visitor, int depth ) {
+        if ( visitor.visit( this, depth ) ) {
+            List<TypeName> typeArguments = this.typeArguments();
+            for ( int i = 0; i < typeArguments.size(); i++ ) {
+                typeArguments.get( i ).accept( visitor, depth + 1 );
+            }
+        }
+    }
+
+    // the unmodifiable type arguments, parsed on first use if lazy
+    private List<TypeName> typeArguments () {
+        List<TypeName> typeArguments = this.parameterisedTypes;
+        if ( typeArguments == null && this.deferred != null ) {
+            typeArguments = this.deferred.typeArguments();
+            this.parameterisedTypes = typeArguments;
+        }
+        return typeArguments;
     }
 
     /**
@@ -142,7 +435,50 @@ public class TypeName {
      * @return a type acronym
      */
     public String typeAcronym () {
-        return this.typeAcronym;
+        String acronym = this.typeAcronym;
+        if ( acronym == null && this.deferred != null ) {
+            acronym = makeTypeAcronym( this.identifierName );
+            this.typeAcronym = acronym;
+        }
+        return acronym;
+    }
+
+    /**
+     * Compares type names structurally. Type names are equal when their 
+     * identifier names, package names, fully qualified names, array 
+     * dimensions and type arguments are equal.
+     * @param obj an object
+     * @return {@code true} if the object is an equal type name
+     */
+    @Override
+    public boolean equals ( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( ! ( obj instanceof TypeName ) ) {
+            return false;
+        }
+        TypeName other = (TypeName) obj;
+        return this.hashCode() == other.hashCode()
+                && this.arrayDimensions == other.arrayDimensions
+                && Objects.equals( this.identifierName, other.identifierName )
+                && Objects.equals( this.packageName(), other.packageName() )
+                && Objects.equals( this.fqn, other.fqn )
+                && Objects.equals( this.typeArguments(), other.typeArguments() );
+    }
+
+    @Override
+    public int hashCode () {
+        int result = this.hash;
+        if ( result == 0 ) {
+            result = Objects.hashCode( this.identifierName );
+            result = 31 * result + Objects.hashCode( this.packageName() );
+            result = 31 * result + Objects.hashCode( this.fqn );
+            result = 31 * result + this.arrayDimensions;
+            result = 31 * result + Objects.hashCode( this.typeArguments() );
+            this.hash = result;
+        }
+        return result;
     }
 
     /**
@@ -154,154 +490,339 @@ public class TypeName {
      * an inner class with parameterised types and extract all the
      * elements. So, {@code package.name.Class.InnerClass<ParameterisedType, ...>[]}
      * </p>
+     * 
+     * <p>
+     * The type name is a region of the string held by the parser, and 
+     * type arguments are parsed recursively as regions of the same 
+     * string, so the string is never copied. Each character is examined 
+     * a fixed number of times however deeply the type arguments are 
+     * nested.
+     * </p>
      *
-     * @param rawTypeName a type name string 
+     * @param parser holds the string being parsed
+     * @param start the start of the type name in the string
+     * @param end the end of the type name in the string
+     * @param countArrayDimensions {@code false} for type arguments, which 
+     * cannot contain array brackets because the brackets are removed from 
+     * the whole type name first
      */
-    private void parse ( String rawTypeName ) {
-        // take away any array dimensions (counting them of course)
-        while ( rawTypeName.contains( "[" ) ) {
-            rawTypeName = rawTypeName.substring( 0, rawTypeName.lastIndexOf( "[" ) );
-            this.arrayDimensions++;
+    private void parse ( Parser parser, int start, int end, boolean countArrayDimensions ) {
+        String source = parser.source;
+
+        if ( countArrayDimensions ) {
+            end = this.stripArrayDimensions( source, start, end );
         }
 
         // strip away any parameterised types
-        if ( rawTypeName.contains( "<" ) ) {
-            int firstLeftAngleBracketIndex = rawTypeName.indexOf( "<" );
-            String typeParameters = rawTypeName.substring( firstLeftAngleBracketIndex );
-            rawTypeName = rawTypeName.substring( 0, firstLeftAngleBracketIndex );
-            // and process them for the list
-            extractParameterisedTypes( typeParameters );
+        List<TypeName> typeArguments = Collections.emptyList();
+        int firstLeftAngleBracketIndex = indexOfTypeArguments( source, start, end );
+        if ( firstLeftAngleBracketIndex < end ) {
+            typeArguments = new ArrayList<>();
+            extractParameterisedTypes( parser, firstLeftAngleBracketIndex, end, typeArguments );
+            end = firstLeftAngleBracketIndex;
+        }
+        this.parameterisedTypes = unmodifiable( typeArguments );
+
+        int firstNestedDot = this.parseName( source, start, end );
+        if ( firstNestedDot >= 0 ) {
+            // any outer classes follow the first dot that precedes an 
+            // upper case letter, so what comes before that dot is the 
+            // package name, provided it starts with a lower case letter
+            if ( startsWithLowerCase( source, start, firstNestedDot ) ) {
+                this.packageName = source.substring( start, firstNestedDot );
+            }
+        }
+        else if ( this.packageName == null ) {
+            this.packageName = "";
+        }
+    }
+
+    // take away any array dimensions (counting them of course). Every 
+    // '[' counts, and the type name ends at the first of them
+    private int stripArrayDimensions ( String source, int start, int end ) {
+        int firstBracket = end;
+        for ( int index = end - 1; index >= start; index-- ) {
+            if ( source.charAt( index ) == '[' ) {
+                firstBracket = index;
+                this.arrayDimensions++;
+            }
         }
+        return firstBracket;
+    }
+
+    // the index of the first '<', or end if there are no type arguments
+    private static int indexOfTypeArguments ( String source, int start, int end ) {
+        int index = start;
+        while ( index < end && source.charAt( index ) != '<' ) {
+            index++;
+        }
+        return index;
+    }
 
+    /**
+     * Finds the identifier name and fully qualified name in a region
+     * without array dimensions or type arguments.
+     * @return the index of the first dot that precedes an upper case 
+     * letter, or -1 if there is none
+     */
+    private int parseName ( String source, int start, int end ) {
         // should have 
         //   - packageName?.OuterClass.InnerClass
         //   - packageName?.ClassName
         //   
         // or a nested class e.g. OuterClass.InnerClass
-        if ( rawTypeName.matches( ".*\\.[A-Z].*" ) ) {
+        int firstNestedDot = findDotBeforeUpperCase( source, start, end );
+        if ( firstNestedDot >= 0 ) {
 
             // if raw type name is a nested type it will start with a
             // capital letter
             // if it starts with a lower case letter then raw typename
             // must be an FQN
-            if ( rawTypeName.matches( "^[a-z].*" ) ) {
-                this.fqn = rawTypeName;
+            if ( startsWithLowerCase( source, start, end ) ) {
+                this.fqn = source.substring( start, end );
 //                this.isResolved = true;
             }
 
-            int lastDotIndex = rawTypeName.lastIndexOf( "." );
-            this.identifierName = rawTypeName.substring( lastDotIndex + 1 );
-            // now we need to be sure that we get this right. The check 
-            // is for any outer classes so that we can remove them to 
-            // extract the package name
-
-            do {
-                lastDotIndex = rawTypeName.lastIndexOf( "." );
-                rawTypeName = rawTypeName.substring( 0, lastDotIndex );
-            }
-            while ( rawTypeName.matches( ".*\\.[A-Z].*" ) );
-
-            // make sure we start with a lower case letter
-            if ( rawTypeName.matches( "^[a-z].*" ) ) {
-                this.packageName = rawTypeName;
-            }
+            int lastDotIndex = source.lastIndexOf( '.', end - 1 );
+            this.identifierName = source.substring( lastDotIndex + 1, end );
         }
         else {
             // this should be a single word, but it could be 
             // 
-            this.identifierName = rawTypeName;
-            if ( this.packageName == null ) {
-                this.packageName = "";
-            }
+            this.identifierName = source.substring( start, end );
         }
+        return firstNestedDot;
     }
 
-    // the test on the incoming string is for '<' only
+    // The region begins with '<' and, if well formed, ends with '>'.
     // There have been occasions when the string "<" gets passed in. 
     // Haven't been able to find the bug, so treat it as a special case.
+    private static void extractParameterisedTypes ( 
+            Parser parser, 
+            int start, 
+            int end, 
+            List<TypeName> typeArguments ) {
+        // suppose we start with <String,HashMap<String,ArrayList>>
+        // remove the outer angle brackets
+        start++;
+        if ( end > start && parser.source.charAt( end - 1 ) == '>' ) {
+            end--;
+        }
+
+        // ok - so any angle brackets make generics used for the type parameters
+        // i.e. we should now have String,HashMap<String,ArrayList>
+        // so now we split on commas ignoring anything between angle brackets
+        int commaLocation = parser.nextCommaAtSameDepth( start, end );
+
+        if ( commaLocation == end ) {
+            // we have only one type, which is used untrimmed
+            typeArguments.add( parser.typeArgument( start, end ) );
+        }
+        else {
+            int firstCharacterLocation = start;
+            while ( firstCharacterLocation <= end ) {
+                typeArguments.add( parser.trimmedTypeName( firstCharacterLocation, commaLocation ) );
+                firstCharacterLocation = commaLocation + 1;
+                commaLocation = parser.nextCommaAtSameDepth( firstCharacterLocation, end );
+            }
+        }
+    }
+
+    // most type names have no type arguments, so share the empty list
+    private static List<TypeName> unmodifiable ( List<TypeName> typeArguments ) {
+        return typeArguments.isEmpty() 
+                ? Collections.emptyList() 
+                : Collections.unmodifiableList( typeArguments );
+    }
+
     /**
-     * Strips one character from each end of a string.
-     *
-     * @param s a string, hopefully with {@literal <} and {@literal >} at the ends.
-     * @return the string without the terminal characters
+     * Equivalent to testing the region with the regular expression 
+     * {@code .*\.[A-Z].*}.
+     * @return the index of the first '.' followed by an upper case ASCII 
+     * letter, or -1 if there is none or the region contains a line 
+     * terminator
      */
-    private String removeOuterAngleBrackets ( String s ) {
-        if ( s.startsWith( "<" ) ) {
-            s = s.substring( 1 );
+    private static int findDotBeforeUpperCase ( String source, int start, int end ) {
+        int found = -1;
+        for ( int index = start; index < end; index++ ) {
+            char c = source.charAt( index );
+            if ( isLineTerminator( c ) ) {
+                return -1;
+            }
+            if ( found < 0 
+                    && c == '.' 
+                    && index + 1 < end 
+                    && source.charAt( index + 1 ) >= 'A' 
+                    && source.charAt( index + 1 ) <= 'Z' ) {
+                found = index;
+            }
         }
+        return found;
+    }
 
-        if ( s.endsWith( ">" ) ) {
-            s = s.substring( 0, s.length() - 1 );
-        }
+    // equivalent to testing the region with ^[a-z].* when the region is 
+    // known not to contain a line terminator
+    private static boolean startsWithLowerCase ( String source, int start, int end ) {
+        return start < end 
+                && source.charAt( start ) >= 'a' 
+                && source.charAt( start ) <= 'z';
+    }
 
-        return s;
+    // the characters not matched by '.' in a regular expression
+    private static boolean isLineTerminator ( char c ) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 
-    private final Character COMMA = ',';
-    private final Character LEFT_ANGLE_BRACKET = '<';
-    private final Character RIGHT_ANGLE_BRACKET = '>';
+    /**
+     * Holds what a lazily evaluated type name needs to work out its 
+     * package name and type arguments: the type name string, and the 
+     * regions of the string they occupy.
+     */
+    private static final class Deferred {
+        private final String source;
+        // the end of the package name, or -1 if there is none
+        private final int packageEnd;
+        // the region holding the type arguments, empty if there are none
+        private final int typeArgumentsStart;
+        private final int typeArgumentsEnd;
+
+        Deferred ( String source, int packageEnd, int typeArgumentsStart, int typeArgumentsEnd ) {
+            this.source = source;
+            this.packageEnd = packageEnd;
+            this.typeArgumentsStart = typeArgumentsStart;
+            this.typeArgumentsEnd = typeArgumentsEnd;
+        }
+
+        String packageName () {
+            return this.packageEnd < 0 ? "" : this.source.substring( 0, this.packageEnd );
+        }
 
-    private void extractParameterisedTypes ( String typeParameters ) {
-        // suppose we start with <String,HashMap<String,ArrayList>>
-        String parameterisedTypeString = this.removeOuterAngleBrackets( typeParameters );
-        // ok - so any angle brackets make generics used for the type parameters
-        // i.e. we should now have String,HashMap<String,ArrayList>
-        // so now we split on commas ignoring anything between angle brackets
-        int nestingLevel = 0;  // a bracket counter
-        ArrayList<Integer> commaLocations = new ArrayList<>();
-
-        int currentChar;
-        for ( int index = 0; index < parameterisedTypeString.length(); index++ ) {
-            currentChar = parameterisedTypeString.codePointAt( index );
-            if ( currentChar == COMMA && nestingLevel == 0 ) {
-                commaLocations.add( index );
+        List<TypeName> typeArguments () {
+            List<TypeName> typeArguments = Collections.emptyList();
+            if ( this.typeArgumentsStart < this.typeArgumentsEnd ) {
+                typeArguments = new ArrayList<>();
+                extractParameterisedTypes( 
+                        new Parser( this.source, false ), 
+                        this.typeArgumentsStart, 
+                        this.typeArgumentsEnd, 
+                        typeArguments );
             }
-            else if ( currentChar == LEFT_ANGLE_BRACKET ) {
-                nestingLevel++;
+            return unmodifiable( typeArguments );
+        }
+    }
+
+    /**
+     * Holds the string being parsed, and an index of the commas in it 
+     * that is built the first time type arguments are split.
+     */
+    private static final class Parser {
+        private static final int NONE = Integer.MAX_VALUE;
+
+        private final String source;
+        // whether type arguments are resolved through the canonical cache
+        private final boolean canonical;
+        // for each index, the first comma at or after it with the same 
+        // angle bracket nesting depth
+        private int[] nextComma;
+
+        Parser ( String source, boolean canonical ) {
+            this.source = source;
+            this.canonical = canonical;
+        }
+
+        // creates a type argument from the region
+        TypeName typeArgument ( int start, int end ) {
+            if ( ! this.canonical || start == end ) {
+                return new TypeName( this, start, end, false );
             }
-            else if ( currentChar == RIGHT_ANGLE_BRACKET ) {
-                nestingLevel--;
+
+            String typeNameString = this.source.substring( start, end );
+            TypeName typeName = canonicalTypeNames.getIfPresent( typeNameString );
+            if ( typeName == null ) {
+                typeName = canonicalTypeNames.putIfAbsent( 
+                        typeNameString, 
+                        new TypeName( this, start, end, false ) );
             }
+            return typeName;
         }
 
-        // so now we have trapped the boundaries
-        // we need to go to work
-        // but first, the low hanging fruit
-        if ( commaLocations.isEmpty() ) {
-            // we have only one type
-            this.parameterisedTypes.add( new TypeName( parameterisedTypeString ) );
+        boolean isNoType ( int start, int end ) {
+            return end - start == NO_TYPE.length() 
+                    && this.source.startsWith( NO_TYPE, start );
         }
-        else {
-            int firstCharacterLocation = 0;
-            for ( int commaLocationIndex = 0; commaLocationIndex < commaLocations.size(); commaLocationIndex++ ) {
-                // we are processing a string of the form a,b(,c)*
-                // so substring is first character to comma
-                // 
 
-                int commaLocation = commaLocations.get( commaLocationIndex );
-                this.parameterisedTypes.add( new TypeName( parameterisedTypeString.substring( firstCharacterLocation, commaLocation ).trim() ) );
+        /**
+         * Finds the next comma that separates the type arguments in a 
+         * region, i.e. the next comma with the same nesting depth as the
+         * start of the region.
+         * @return the index of the comma, or {@code end} if there is none
+         */
+        int nextCommaAtSameDepth ( int start, int end ) {
+            if ( start >= end ) {
+                return end;
+            }
+            if ( this.nextComma == null ) {
+                this.nextComma = indexCommas( this.source );
+            }
+            return Math.min( this.nextComma[ start ], end );
+        }
 
-                // update the record of the first character, so that it refs the
-                // following type name
-                firstCharacterLocation = commaLocation + 1;
+        // creates a type argument from the region without leading or 
+        // trailing white space, as String.trim()
+        TypeName trimmedTypeName ( int start, int end ) {
+            while ( start < end && this.source.charAt( start ) <= ' ' ) {
+                start++;
+            }
+            while ( end > start && this.source.charAt( end - 1 ) <= ' ' ) {
+                end--;
+            }
+            return typeArgument( start, end );
+        }
+
+        private static int[] indexCommas ( String source ) {
+            int length = source.length();
+            int depth = 0;
+            for ( int index = 0; index < length; index++ ) {
+                depth += depthChange( source.charAt( index ) );
+            }
 
-                // for last comma we also need to extract the type name beyond the comma
-                if ( commaLocationIndex == ( commaLocations.size() - 1 ) ) {
-                    this.parameterisedTypes.add( new TypeName( parameterisedTypeString.substring( firstCharacterLocation ).trim() ) );
+            // depths range from -length to length
+            int[] lastCommaAtDepth = new int[ 2 * length + 1 ];
+            Arrays.fill( lastCommaAtDepth, NONE );
+            int[] nextComma = new int[ length ];
+
+            for ( int index = length - 1; index >= 0; index-- ) {
+                char c = source.charAt( index );
+                // depth is now the depth before the character
+                depth -= depthChange( c );
+                if ( c == ',' ) {
+                    lastCommaAtDepth[ depth + length ] = index;
                 }
+                nextComma[ index ] = lastCommaAtDepth[ depth + length ];
             }
+
+            return nextComma;
+        }
+
+        private static int depthChange ( char c ) {
+            return c == '<' ? 1 : c == '>' ? -1 : 0;
         }
     }
 
+    // the acronym is made from the first char of each token, found 
+    // without creating the tokens
     private String makeTypeAcronym ( String typeName ) {
-        List<String> tokens = SimpleNameTokeniser.split( typeName );
         StringBuilder acronym = new StringBuilder();
-        tokens.stream()
-                .forEach( (word) -> {
-                    acronym.append( word.charAt( 0 ) );
-                } );
+        int position = 0;
+        long span;
+
+        while ( ( span = SimpleNameTokeniser.nextToken( typeName, position ) ) 
+                != SimpleNameTokeniser.NO_TOKEN ) {
+            acronym.append( typeName.charAt( SimpleNameTokeniser.tokenStart( span ) ) );
+            position = SimpleNameTokeniser.tokenEnd( span );
+        }
 
-        return acronym.toString().toLowerCase();
+        return acronym.toString().toLowerCase( Locale.ROOT );
     }
 
 }
@@ -0,0 +1,435 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds type names as trees of nodes stored in parallel {@code int} 
+ * arrays. Each node records the identifiers of its identifier name, 
+ * package name and fully qualified name in a {@link TokenDictionary}, 
+ * its array dimensions, its first type argument and the following type 
+ * argument of its parent. 
+ * 
+ * <p>
+ * A type name held this way needs six {@code int}s per node, and each 
+ * distinct name is stored once however many type names use it, which 
+ * is a small fraction of the memory needed for the equivalent 
+ * {@link TypeName} objects. Nodes are identified by dense {@code int} 
+ * identifiers, starting at zero, and the nodes of a type name are added
+ * depth first, so a type name occupies a contiguous range of nodes.
+ * </p>
+ * 
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+public final class TypeNameArena {
+
+    /** Value used for absent nodes and names. */
+    public static final int NONE = -1;
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final TokenDictionary names;
+
+    private int[] identifierNames;
+    private int[] packageNames;
+    private int[] fqns;
+    private int[] arrayDimensions;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int size;
+
+    /**
+     * Creates an empty arena with its own string table.
+     */
+    public TypeNameArena() {
+        this( new TokenDictionary() );
+    }
+
+    /**
+     * Creates an empty arena that interns names in the given string 
+     * table, which may be shared with other arenas or uses.
+     * @param names a string table
+     */
+    public TypeNameArena( TokenDictionary names ) {
+        this.names = names;
+        this.identifierNames = new int[ DEFAULT_CAPACITY ];
+        this.packageNames = new int[ DEFAULT_CAPACITY ];
+        this.fqns = new int[ DEFAULT_CAPACITY ];
+        this.arrayDimensions = new int[ DEFAULT_CAPACITY ];
+        this.firstChildren = new int[ DEFAULT_CAPACITY ];
+        this.nextSiblings = new int[ DEFAULT_CAPACITY ];
+    }
+
+    /**
+     * Adds a type name and its type arguments.
+     * @param typeName a type name
+     * @return the node of the type name
+     */
+    public int add( TypeName typeName ) {
+        int node = addNode( typeName );
+
+        int previous = NONE;
+        for ( int i = 0; i < typeName.parameterCount(); i++ ) {
+            int child = add( typeName.parameterAt( i ) );
+            if ( previous == NONE ) {
+                this.firstChildren[ node ] = child;
+            }
+            else {
+                this.nextSiblings[ previous ] = child;
+            }
+            previous = child;
+        }
+
+        return node;
+    }
+
+    /**
+     * Creates a {@code TypeName} equal to the type name added as a node.
+     * @param node a node
+     * @return a type name
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public TypeName toTypeName( int node ) {
+        checkNode( node );
+        List<TypeName> typeArguments = new ArrayList<>( parameterCount( node ) );
+        for ( int child = this.firstChildren[ node ]; 
+                child != NONE; 
+                child = this.nextSiblings[ child ] ) {
+            typeArguments.add( toTypeName( child ) );
+        }
+
+        return new TypeName( 
+                identifierName( node ), 
+                packageName( node ), 
+                fqn( node ), 
+                this.arrayDimensions[ node ], 
+                typeArguments );
+    }
+
+    /**
+     * Retrieves the string table used for names.
+     * @return the string table
+     */
+    public TokenDictionary names() {
+        return this.names;
+    }
+
+    /**
+     * Reports the number of nodes held.
+     * @return a count of nodes
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Retrieves the identifier of the identifier name of a node in the 
+     * string table.
+     * @param node a node
+     * @return the identifier of a name
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public int identifierNameId( int node ) {
+        checkNode( node );
+        return this.identifierNames[ node ];
+    }
+
+    /**
+     * Retrieves the identifier of the package name of a node in the 
+     * string table.
+     * @param node a node
+     * @return the identifier of a name, or {@link #NONE} if the package 
+     * name is {@code null}
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public int packageNameId( int node ) {
+        checkNode( node );
+        return this.packageNames[ node ];
+    }
+
+    /**
+     * Retrieves the identifier of the fully qualified name of a node in 
+     * the string table.
+     * @param node a node
+     * @return the identifier of a name
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public int fqnId( int node ) {
+        checkNode( node );
+        return this.fqns[ node ];
+    }
+
+    /**
+     * Retrieves the identifier name of a node.
+     * @param node a node
+     * @return a name
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public String identifierName( int node ) {
+        return this.names.token( identifierNameId( node ) );
+    }
+
+    /**
+     * Retrieves the package name of a node.
+     * @param node a node
+     * @return a package name, the empty string if it is not defined, or 
+     * {@code null} if the type name was created with a {@code null} 
+     * package name
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public String packageName( int node ) {
+        int id = packageNameId( node );
+        return id == NONE ? null : this.names.token( id );
+    }
+
+    /**
+     * Retrieves the fully qualified name of a node.
+     * @param node a node
+     * @return a fully qualified name, or the empty string if it is not 
+     * defined
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public String fqn( int node ) {
+        return this.names.token( fqnId( node ) );
+    }
+
+    /**
+     * Reports the array dimensions of a node.
+     * @param node a node
+     * @return a count of array dimensions
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public int arrayDimensions( int node ) {
+        checkNode( node );
+        return this.arrayDimensions[ node ];
+    }
+
+    /**
+     * Retrieves the node of the first type argument of a node.
+     * @param node a node
+     * @return a node, or {@link #NONE} if there are no type arguments
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public int firstChild( int node ) {
+        checkNode( node );
+        return this.firstChildren[ node ];
+    }
+
+    /**
+     * Retrieves the node of the type argument that follows a node in the
+     * type arguments of its parent.
+     * @param node a node
+     * @return a node, or {@link #NONE} if the node is the last type 
+     * argument, or is not a type argument
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public int nextSibling( int node ) {
+        checkNode( node );
+        return this.nextSiblings[ node ];
+    }
+
+    /**
+     * Reports the number of type arguments of a node.
+     * @param node a node
+     * @return a count of type arguments
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public int parameterCount( int node ) {
+        int count = 0;
+        for ( int child = firstChild( node ); child != NONE; child = this.nextSiblings[ child ] ) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Creates a cursor positioned on a node.
+     * @param node a node
+     * @return a cursor
+     * @throws IndexOutOfBoundsException if {@code node} is not a node
+     */
+    public Cursor cursor( int node ) {
+        return new Cursor().moveTo( node );
+    }
+
+    private int addNode( TypeName typeName ) {
+        if ( this.size == this.identifierNames.length ) {
+            int capacity = this.size * 2;
+            this.identifierNames = Arrays.copyOf( this.identifierNames, capacity );
+            this.packageNames = Arrays.copyOf( this.packageNames, capacity );
+            this.fqns = Arrays.copyOf( this.fqns, capacity );
+            this.arrayDimensions = Arrays.copyOf( this.arrayDimensions, capacity );
+            this.firstChildren = Arrays.copyOf( this.firstChildren, capacity );
+            this.nextSiblings = Arrays.copyOf( this.nextSiblings, capacity );
+        }
+
+        String packageName = typeName.packageName();
+        int node = this.size++;
+        this.identifierNames[ node ] = this.names.intern( typeName.identifierName() );
+        this.packageNames[ node ] = packageName == null ? NONE : this.names.intern( packageName );
+        this.fqns[ node ] = this.names.intern( typeName.fqn() );
+        this.arrayDimensions[ node ] = typeName.arrayDimensions();
+        this.firstChildren[ node ] = NONE;
+        this.nextSiblings[ node ] = NONE;
+        return node;
+    }
+
+    private void checkNode( int node ) {
+        if ( node < 0 || node >= this.size ) {
+            throw new IndexOutOfBoundsException( 
+                    String.format( "node %d, size %d", node, this.size ) );
+        }
+    }
+
+    /**
+     * Moves over the nodes of an arena. A cursor can be moved to the first
+     * type argument of its node, to the following type argument, and back
+     * to the node it descended from, so a type name can be walked without
+     * recursion or allocation once the cursor's stack has grown to the 
+     * depth of the type name.
+     */
+    public final class Cursor {
+        private int node;
+        private int[] parents = new int[ 8 ];
+        private int depth;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves the cursor to a node, forgetting the nodes it descended 
+         * from.
+         * @param node a node
+         * @return this cursor
+         * @throws IndexOutOfBoundsException if {@code node} is not a node
+         */
+        public Cursor moveTo( int node ) {
+            checkNode( node );
+            this.node = node;
+            this.depth = 0;
+            return this;
+        }
+
+        /**
+         * Moves to the first type argument of the current node.
+         * @return {@code true} if the cursor moved, or {@code false} if 
+         * the node has no type arguments
+         */
+        public boolean toFirstChild() {
+            int child = firstChildren[ this.node ];
+            if ( child == NONE ) {
+                return false;
+            }
+            if ( this.depth == this.parents.length ) {
+                this.parents = Arrays.copyOf( this.parents, this.depth * 2 );
+            }
+            this.parents[ this.depth++ ] = this.node;
+            this.node = child;
+            return true;
+        }
+
+        /**
+         * Moves to the type argument following the current node.
+         * @return {@code true} if the cursor moved, or {@code false} if 
+         * the node is the last type argument
+         */
+        public boolean toNextSibling() {
+            int sibling = nextSiblings[ this.node ];
+            if ( sibling == NONE ) {
+                return false;
+            }
+            this.node = sibling;
+            return true;
+        }
+
+        /**
+         * Moves back to the node the cursor descended from with 
+         * {@link #toFirstChild()}.
+         * @return {@code true} if the cursor moved, or {@code false} if 
+         * the cursor is at the node it was moved to
+         */
+        public boolean toParent() {
+            if ( this.depth == 0 ) {
+                return false;
+            }
+            this.node = this.parents[ --this.depth ];
+            return true;
+        }
+
+        /**
+         * Reports the current node.
+         * @return a node
+         */
+        public int node() {
+            return this.node;
+        }
+
+        /**
+         * Reports how many times the cursor has descended from the node 
+         * it was moved to.
+         * @return a depth, zero at the node the cursor was moved to
+         */
+        public int depth() {
+            return this.depth;
+        }
+
+        /**
+         * Retrieves the identifier of the identifier name of the node.
+         * @return the identifier of a name
+         */
+        public int identifierNameId() {
+            return identifierNames[ this.node ];
+        }
+
+        /**
+         * Retrieves the identifier name of the node.
+         * @return a name
+         */
+        public String identifierName() {
+            return TypeNameArena.this.identifierName( this.node );
+        }
+
+        /**
+         * Retrieves the package name of the node.
+         * @return a package name
+         */
+        public String packageName() {
+            return TypeNameArena.this.packageName( this.node );
+        }
+
+        /**
+         * Retrieves the fully qualified name of the node.
+         * @return a fully qualified name
+         */
+        public String fqn() {
+            return TypeNameArena.this.fqn( this.node );
+        }
+
+        /**
+         * Reports the array dimensions of the node.
+         * @return a count of array dimensions
+         */
+        public int arrayDimensions() {
+            return arrayDimensions[ this.node ];
+        }
+    }
+}
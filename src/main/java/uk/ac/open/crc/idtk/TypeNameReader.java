@@ -0,0 +1,243 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Parses files holding one type name per line, in UTF-8, using every 
+ * core. 
+ * 
+ * <p>
+ * The file is memory mapped in chunks that end at line boundaries, and 
+ * the chunks are parsed in the common fork join pool with 
+ * {@link TypeName#of(String)}, so the workers share its canonicalising
+ * cache. Results are delivered in the order of the lines, on the calling
+ * thread, while later chunks are still being parsed, and only a few 
+ * chunks are held in memory at once. Empty lines are skipped, and a 
+ * line may end with "\n" or "\r\n".
+ * </p>
+ */
+public final class TypeNameReader {
+
+    // the size of the chunks the file is split into, unless a line is 
+    // longer
+    private static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Parses each line of a file.
+     * @param file a file of type names
+     * @param consumer receives the type names in the order of the lines
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is not a type name, 
+     * reporting the offset in the file of the line
+     */
+    public static void read( Path file, Consumer<TypeName> consumer ) throws IOException {
+        read( file, consumer, CHUNK_SIZE );
+    }
+
+    /**
+     * Parses each line of a file into a list.
+     * @param file a file of type names
+     * @return type names in the order of the lines
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is not a type name
+     */
+    public static List<TypeName> readAll( Path file ) throws IOException {
+        List<TypeName> typeNames = new ArrayList<>();
+        read( file, typeNames::add );
+        return typeNames;
+    }
+
+    /**
+     * Parses each line of a file into an arena. 
+     * @param file a file of type names
+     * @param arena receives the type names
+     * @return the node of each type name in the arena, in the order of
+     * the lines
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is not a type name
+     */
+    public static int[] readInto( Path file, TypeNameArena arena ) throws IOException {
+        ArenaWriter writer = new ArenaWriter( arena );
+        read( file, writer );
+        return Arrays.copyOf( writer.nodes, writer.count );
+    }
+
+    // the chunk size is given so that tests can use small chunks
+    static void read( Path file, Consumer<TypeName> consumer, int chunkSize ) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        // bounds the number of chunks held at once
+        int maximumPending = pool.getParallelism() * 2;
+        Deque<ForkJoinTask<TypeName[]>> pending = new ArrayDeque<>();
+
+        try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+            long size = channel.size();
+            long start = 0;
+            while ( start < size ) {
+                MappedByteBuffer chunk = mapChunk( channel, start, size, chunkSize );
+                pending.addLast( pool.submit( new ChunkTask( chunk, start ) ) );
+                start += chunk.limit();
+
+                while ( pending.size() >= maximumPending ) {
+                    deliver( pending.removeFirst(), consumer );
+                }
+            }
+            while ( ! pending.isEmpty() ) {
+                deliver( pending.removeFirst(), consumer );
+            }
+        }
+        finally {
+            for ( ForkJoinTask<TypeName[]> task : pending ) {
+                task.cancel( false );
+            }
+        }
+    }
+
+    // maps a region from start that ends after the last complete line in
+    // it, growing the region until it holds a complete line
+    private static MappedByteBuffer mapChunk( 
+            FileChannel channel, 
+            long start, 
+            long size, 
+            int chunkSize ) throws IOException {
+        long length = chunkSize;
+        while ( true ) {
+            long end = Math.min( size, start + length );
+            MappedByteBuffer chunk = channel.map( FileChannel.MapMode.READ_ONLY, start, end - start );
+            if ( end == size ) {
+                return chunk;
+            }
+            for ( int index = chunk.limit() - 1; index >= 0; index-- ) {
+                if ( chunk.get( index ) == '\n' ) {
+                    // through Buffer, as MappedByteBuffer.limit(int) is 
+                    // missing before Java 9
+                    ( (Buffer) chunk ).limit( index + 1 );
+                    return chunk;
+                }
+            }
+            if ( length > Integer.MAX_VALUE / 2 ) {
+                throw new IOException( "line too long at offset " + start + " in " + channel );
+            }
+            length *= 2;
+        }
+    }
+
+    private static void deliver( ForkJoinTask<TypeName[]> task, Consumer<TypeName> consumer ) {
+        for ( TypeName typeName : task.join() ) {
+            consumer.accept( typeName );
+        }
+    }
+
+    /**
+     * Parses the lines of a chunk.
+     */
+    private static final class ChunkTask implements Callable<TypeName[]> {
+        private final MappedByteBuffer chunk;
+        // the offset of the chunk in the file
+        private final long offset;
+
+        ChunkTask( MappedByteBuffer chunk, long offset ) {
+            this.chunk = chunk;
+            this.offset = offset;
+        }
+
+        @Override
+        public TypeName[] call() {
+            List<TypeName> typeNames = new ArrayList<>();
+            byte[] line = new byte[ 256 ];
+            int limit = this.chunk.limit();
+            int lineStart = 0;
+
+            while ( lineStart < limit ) {
+                int lineEnd = lineStart;
+                while ( lineEnd < limit && this.chunk.get( lineEnd ) != '\n' ) {
+                    lineEnd++;
+                }
+                int next = lineEnd + 1;
+                if ( lineEnd > lineStart && this.chunk.get( lineEnd - 1 ) == '\r' ) {
+                    lineEnd--;
+                }
+
+                int length = lineEnd - lineStart;
+                if ( length > 0 ) {
+                    if ( length > line.length ) {
+                        line = new byte[ Math.max( length, line.length * 2 ) ];
+                    }
+                    ( (Buffer) this.chunk ).position( lineStart );
+                    this.chunk.get( line, 0, length );
+                    typeNames.add( parse( new String( line, 0, length, StandardCharsets.UTF_8 ), lineStart ) );
+                }
+                lineStart = next;
+            }
+
+            return typeNames.toArray( new TypeName[ typeNames.size() ] );
+        }
+
+        private TypeName parse( String typeNameString, int lineStart ) {
+            try {
+                return TypeName.of( typeNameString );
+            }
+            catch ( IllegalArgumentException e ) {
+                throw new IllegalArgumentException( String.format( 
+                        "malformed type name \"%s\" at offset %d", 
+                        typeNameString, 
+                        this.offset + lineStart ), 
+                        e );
+            }
+        }
+    }
+
+    /**
+     * Adds type names to an arena, recording their nodes.
+     */
+    private static final class ArenaWriter implements Consumer<TypeName> {
+        private final TypeNameArena arena;
+        private int[] nodes = new int[ 1024 ];
+        private int count;
+
+        ArenaWriter( TypeNameArena arena ) {
+            this.arena = arena;
+        }
+
+        @Override
+        public void accept( TypeName typeName ) {
+            if ( this.count == this.nodes.length ) {
+                this.nodes = Arrays.copyOf( this.nodes, this.count * 2 );
+            }
+            this.nodes[ this.count++ ] = this.arena.add( typeName );
+        }
+    }
+
+    // prevent instantiation as this class only provides static services
+    private TypeNameReader() {}
+}
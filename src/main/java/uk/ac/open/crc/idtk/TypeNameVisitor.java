@@ -0,0 +1,38 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+/**
+ * Visits a type name and its type arguments depth first, without copying
+ * the lists of type arguments. See {@link TypeName#accept(TypeNameVisitor)}.
+ * Each type name holds its own {@link TypeName#arrayDimensions()}, e.g. 
+ * in the signature of {@code Map<String,int[]>[]} {@code Map} has one 
+ * dimension, {@code String} none and {@code int} one.
+ */
+@FunctionalInterface
+public interface TypeNameVisitor {
+
+    /**
+     * Visits a single type name.
+     * @param typeName the type name
+     * @param depth zero for the type name the walk started from, one for
+     * its type arguments, and so on
+     * @return {@code true} to visit the type arguments of the type name,
+     * or {@code false} to skip them
+     */
+    boolean visit( TypeName typeName, int depth );
+}
@@ -25,6 +25,29 @@
  * names, but will come unstuck at times. {@code TypeName} represents 
  * Java type names and the various components of type names.
  * 
+ * <p>
+ * {@code IdentifierNormaliser} combines tokenisation with the optional 
+ * clean up of tokens provided by {@code Modals} and {@code SubTool} in a 
+ * single pass. Tokens may also be received as spans of the name, through 
+ * {@code TokenSpans} or a {@code TokenSink}, to avoid creating strings. 
+ * The contractions expanded are held by an {@code ExpansionDictionary}, 
+ * which may be loaded from a file and replaced while running. 
+ * {@code DictionaryCompiler} compiles dictionaries to a binary form that
+ * loads faster.
+ * {@code PrefixTool} applies the policies of {@code SubTool} to other 
+ * prefixes, such as 'super' and 'non'.
+ * </p>
+ * 
+ * <p>
+ * {@code TypeNameArena} holds many type names compactly as trees of 
+ * {@code int}s, with their names interned in a {@code TokenDictionary}.
+ * {@code AcronymIndex} finds the types whose acronyms match identifier 
+ * names.
+ * {@code TypeNameReader} parses files of type names in parallel.
+ * {@code PackageTrie} holds package names once, by shared prefix, and
+ * finds the types within a package.
+ * </p>
+ * 
  * <h2>Caveats</h2>
  * This library is research software and is prone to change, it is also 
  * prone to not being maintained. The APIs of 
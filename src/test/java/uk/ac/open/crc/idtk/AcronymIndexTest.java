@@ -0,0 +1,87 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@code AcronymIndex}.
+ * 
+ */
+public class AcronymIndexTest {
+
+    @Test
+    public void candidatesTest() {
+        AcronymIndex index = new AcronymIndex();
+        TypeName stringBuilder = new TypeName( "java.lang.StringBuilder" );
+        TypeName stringBuffer = new TypeName( "StringBuffer" );
+        TypeName list = new TypeName( "List<String>" );
+
+        assertThat( "type not added", index.add( stringBuilder ), is( true ) );
+        assertThat( "type not added", index.add( stringBuffer ), is( true ) );
+        assertThat( "type not added", index.add( list ), is( true ) );
+        assertThat( "equal type added", index.add( new TypeName( "java.lang.StringBuilder" ) ), is( false ) );
+        assertThat( "no type added", index.add( new TypeName( TypeName.NO_TYPE ) ), is( false ) );
+
+        assertThat( "unexpected size", index.size(), is( 3 ) );
+        assertThat( "unexpected acronym count", index.acronymCount(), is( 2 ) );
+        assertThat( "unexpected candidates", index.candidates( "sb" ), contains( stringBuilder, stringBuffer ) );
+        assertThat( "case ignored", index.candidates( "SB" ), contains( stringBuilder, stringBuffer ) );
+        assertThat( "unexpected candidates", index.candidates( "l" ), contains( list ) );
+        assertThat( "unexpected match", index.candidates( "sbx" ), is( empty() ) );
+        assertThat( "unexpected acronym", index.acronym( index.acronymId( "Sb" ) ), is( "sb" ) );
+    }
+
+    @Test
+    public void batchQueryTest() {
+        AcronymIndex index = new AcronymIndex();
+        index.addAll( Arrays.asList( new TypeName( "HashMap" ), new TypeName( "Iterator" ) ) );
+        List<String> names = Arrays.asList( "hm", "count", "i" );
+
+        int[] ids = index.acronymIds( names );
+        assertThat( "unexpected id", ids[ 0 ], is( index.acronymId( "hm" ) ) );
+        assertThat( "unexpected match", ids[ 1 ], is( AcronymIndex.NOT_FOUND ) );
+
+        List<List<TypeName>> candidates = index.candidates( names );
+        assertThat( "unexpected candidates", candidates.get( 0 ), contains( new TypeName( "HashMap" ) ) );
+        assertThat( "unexpected candidates", candidates.get( 1 ), is( empty() ) );
+        assertThat( "unexpected candidates", candidates.get( 2 ), contains( new TypeName( "Iterator" ) ) );
+    }
+
+    @Test
+    public void defaultLocaleIgnoredTest() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault( new Locale( "tr", "TR" ) );
+        try {
+            AcronymIndex index = new AcronymIndex();
+            TypeName exception = new TypeName( "IndexOutOfBoundsException" );
+            index.add( exception );
+
+            assertThat( "unexpected acronym", exception.typeAcronym(), is( "ioobe" ) );
+            assertThat( "unexpected candidates", index.candidates( "IOOBE" ), contains( exception ) );
+            assertThat( "unexpected candidates", index.candidates( "ioobe" ), contains( exception ) );
+        }
+        finally {
+            Locale.setDefault( locale );
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@code DictionaryCompiler}.
+ * 
+ */
+public class DictionaryCompilerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compileTest() throws IOException {
+        Path text = folder.newFile( "abbreviations.txt" ).toPath();
+        Files.write( text, Arrays.asList( "cfg,configuration", "num of,number of", 
+                "größe,size", "malformed" ), StandardCharsets.UTF_8 );
+        Path binary = folder.getRoot().toPath().resolve( "out" ).resolve( "abbreviations.bin" );
+
+        DictionaryCompiler.main( new String[] { text.toString(), binary.toString() } );
+
+        assertThat( "binary form differs", 
+                ExpansionDictionary.fromFile( binary ).asMap(), 
+                is( ExpansionDictionary.fromFile( text ).asMap() ) );
+        assertThat( "binary form not detected", 
+                ExpansionDictionary.fromFile( binary ).size(), is( 3 ) );
+    }
+
+    @Test
+    public void malformedEntryTest() throws IOException {
+        String[] malformed = { "cfg, ", "cfg,config  uration", "num  of,number of", 
+            " num,number", ",nothing" };
+        for ( String entry : malformed ) {
+            assertRejected( Arrays.asList( "impl,implementation", entry ), "malformed entry", ":2: " );
+        }
+        assertRejected( Arrays.asList( "cfg,configuration", "malformed", "cfg,config" ), 
+                "repeated entry", ":3: repeated entry" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void unpairedArgumentsTest() throws IOException {
+        DictionaryCompiler.main( new String[] { "abbreviations.txt" } );
+    }
+
+    private void assertRejected( List<String> lines, String description, String message ) 
+            throws IOException {
+        Path text = folder.newFile().toPath();
+        Files.write( text, lines, StandardCharsets.UTF_8 );
+        Path binary = folder.getRoot().toPath().resolve( "rejected.bin" );
+        try {
+            DictionaryCompiler.compile( text, binary );
+            fail( description + " compiled: " + lines );
+        }
+        catch ( IOException e ) {
+            assertThat( "offending line not reported", e.getMessage(), containsString( message ) );
+        }
+    }
+}
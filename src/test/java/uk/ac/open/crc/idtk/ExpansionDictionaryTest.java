@@ -0,0 +1,307 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@code ExpansionDictionary} and its use by {@code Modals} 
+ * and {@code IdentifierNormaliser}.
+ * 
+ */
+public class ExpansionDictionaryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void builtInTest() {
+        ExpansionDictionary dictionary = ExpansionDictionary.builtIn();
+
+        assertThat( "built in dictionary not shared", 
+                ExpansionDictionary.builtIn(), is( sameInstance( dictionary ) ) );
+        assertThat( "wrong expansion", 
+                dictionary.expansionOf( "wont" ), contains( "will", "not" ) );
+        assertThat( "case ignored by exact lookup", 
+                dictionary.isContraction( "WONT" ), is( false ) );
+        assertThat( "case not ignored by span lookup", 
+                dictionary.isContractionIgnoreCase( "xWONTx", 1, 5 ), is( true ) );
+        assertThat( "map and table differ", 
+                dictionary.asMap().size(), is( dictionary.size() ) );
+    }
+
+    @Test
+    public void fromFileTest() throws IOException {
+        Path file = folder.newFile( "expansions.txt" ).toPath();
+        Files.write( file, Arrays.asList( "impl,implementation", "ne,not equal", 
+                "malformed line", "a,b,c" ), StandardCharsets.UTF_8 );
+
+        ExpansionDictionary dictionary = ExpansionDictionary.fromFile( file );
+
+        assertThat( "malformed lines read", dictionary.size(), is( 2 ) );
+        assertThat( "wrong expansion", 
+                dictionary.expansionOf( "ne" ), contains( "not", "equal" ) );
+        assertThat( "unexpected expansion", 
+                dictionary.expansionOf( "wont" ), is( nullValue() ) );
+    }
+
+    @Test
+    public void binaryFormTest() throws IOException {
+        ExpansionDictionary text = ExpansionDictionary.fromResource( "/contractions.txt" );
+        ExpansionDictionary phrases = text.plus( ExpansionDictionary.of( 
+                Collections.singletonMap( "num of", Arrays.asList( "number", "of" ) ) ) );
+        Path file = folder.newFile( "expansions.bin" ).toPath();
+        try ( OutputStream out = Files.newOutputStream( file ) ) {
+            phrases.write( out );
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        phrases.write( bytes );
+
+        assertThat( "built in dictionary differs", 
+                ExpansionDictionary.builtIn().asMap(), is( text.asMap() ) );
+        assertThat( "mapped file differs", 
+                ExpansionDictionary.fromFile( file ).asMap(), is( phrases.asMap() ) );
+        ExpansionDictionary read = ExpansionDictionary.read( 
+                new ByteArrayInputStream( bytes.toByteArray() ) );
+        assertThat( "stream differs", read.asMap(), is( phrases.asMap() ) );
+        assertThat( "phrase lost", read.longestEntryLength(), is( 2 ) );
+    }
+
+    @Test( expected = IOException.class )
+    public void truncatedBinaryFormTest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ExpansionDictionary.builtIn().write( bytes );
+
+        ExpansionDictionary.read( new ByteArrayInputStream( 
+                Arrays.copyOf( bytes.toByteArray(), bytes.size() - 6 ) ) );
+    }
+
+    @Test( expected = FileNotFoundException.class )
+    public void missingResourceTest() throws IOException {
+        ExpansionDictionary.fromResource( "/no-such-dictionary.txt" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void emptyExpansionTest() {
+        ExpansionDictionary.of( Collections.singletonMap( "x", Collections.emptyList() ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void blankWordTest() {
+        ExpansionDictionary.of( Collections.singletonMap( "x", Arrays.asList( "a", " " ) ) );
+    }
+
+    @Test
+    public void emptyExpansionReadTest() {
+        String[] malformed = { "foo, ", "foo,a  b", "cant,can not\nfoo, " };
+        for ( String text : malformed ) {
+            try {
+                ExpansionDictionary.read( 
+                        new ByteArrayInputStream( text.getBytes( StandardCharsets.UTF_8 ) ) );
+                fail( "empty expansion accepted: " + text );
+            }
+            catch ( IOException e ) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void emptyEntryTokenTest() {
+        String[] malformed = { "", " num of", "num of ", "num  of" };
+        for ( String entry : malformed ) {
+            try {
+                ExpansionDictionary.of( Collections.singletonMap( 
+                        entry, Arrays.asList( "number", "of" ) ) );
+                fail( "empty token accepted: \"" + entry + "\"" );
+            }
+            catch ( IllegalArgumentException e ) {
+                // expected
+            }
+        }
+        try {
+            ExpansionDictionary.read( new ByteArrayInputStream( 
+                    "num  of,number of".getBytes( StandardCharsets.UTF_8 ) ) );
+            fail( "empty token read" );
+        }
+        catch ( IOException e ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void sharedExpansionTest() {
+        ExpansionDictionary dictionary = ExpansionDictionary.builtIn();
+        ExpansionDictionary derived = dictionary.plus( ExpansionDictionary.of( 
+                Collections.singletonMap( "impl", Arrays.asList( "implementation" ) ) ) );
+
+        assertThat( "expansion copied or wrapped again", 
+                derived.expansionOf( "cant" ), 
+                is( sameInstance( dictionary.expansionOf( "cant" ) ) ) );
+        assertThat( "map and table differ", 
+                derived.asMap().get( "cant" ), 
+                is( sameInstance( derived.expansionOf( "cant" ) ) ) );
+    }
+
+    @Test
+    public void plusTest() {
+        ExpansionDictionary dictionary = ExpansionDictionary.builtIn().plus( 
+                ExpansionDictionary.of( Collections.singletonMap( 
+                        "wont", Arrays.asList( "would", "not" ) ) ) );
+
+        assertThat( "other dictionary does not take precedence", 
+                dictionary.expansionOf( "wont" ), contains( "would", "not" ) );
+        assertThat( "contraction lost", 
+                dictionary.expansionOf( "cant" ), contains( "can", "not" ) );
+        assertThat( "built in dictionary changed", 
+                ExpansionDictionary.builtIn().expansionOf( "wont" ), 
+                contains( "will", "not" ) );
+    }
+
+    @Test
+    public void expandTest() {
+        ExpansionDictionary dictionary = ExpansionDictionary.builtIn();
+        List<String> tokens = Arrays.asList( "they", "cant", "sing" );
+        List<String> unchanged = Arrays.asList( "they", "sing" );
+
+        assertThat( "wrong expansion", 
+                dictionary.expand( tokens ), contains( "they", "can", "not", "sing" ) );
+        assertThat( "list without contractions copied", 
+                dictionary.expand( unchanged ), is( sameInstance( unchanged ) ) );
+    }
+
+    @Test
+    public void phraseTest() throws IOException {
+        Path file = folder.newFile( "abbreviations.txt" ).toPath();
+        Files.write( file, Arrays.asList( "num,number", "num of,number of", 
+                "cfg,configuration", "max num of,maximum number of" ), 
+                StandardCharsets.UTF_8 );
+
+        ExpansionDictionary dictionary = ExpansionDictionary.fromFile( file );
+
+        assertThat( "wrong longest entry", dictionary.longestEntryLength(), is( 3 ) );
+        assertThat( "longest entries not expanded", 
+                dictionary.expand( Arrays.asList( "get", "num", "of", "cfg", 
+                        "max", "num", "of", "num", "max", "num" ) ), 
+                contains( "get", "number", "of", "configuration", "maximum", 
+                        "number", "of", "number", "max", "number" ) );
+
+        IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+                .lowerCase( true )
+                .expandModals( true )
+                .expansions( dictionary )
+                .subPolicy( SubTool.Policy.EXPAND )
+                .build();
+        assertThat( "phrase not expanded by normaliser", 
+                normaliser.normalise( "maxNumOfSubmenuCfgs" ), 
+                contains( "maximum", "number", "of", "sub", "menu", "cfgs" ) );
+    }
+
+    @Test
+    public void replaceModalsDictionaryTest() {
+        ExpansionDictionary replacement = ExpansionDictionary.of( 
+                Collections.singletonMap( "impl", Arrays.asList( "implementation" ) ) );
+        ExpansionDictionary previous = Modals.setDictionary( replacement );
+        try {
+            assertThat( "dictionary not replaced", 
+                    Modals.dictionary(), is( sameInstance( replacement ) ) );
+            assertThat( "replacement not used", 
+                    Modals.expand( Arrays.asList( "impl", "cant" ) ), 
+                    contains( "implementation", "cant" ) );
+
+            ExpansionDictionary combined = Modals.updateDictionary( 
+                    current -> ExpansionDictionary.builtIn().plus( current ) );
+            assertThat( "update not applied", 
+                    Modals.dictionary(), is( sameInstance( combined ) ) );
+            assertThat( "combined dictionary not used", 
+                    Modals.isModal( "cant" ) && Modals.isModal( "impl" ), is( true ) );
+        }
+        finally {
+            Modals.setDictionary( previous );
+        }
+    }
+
+    @Test
+    public void restoreBuiltInTest() {
+        ExpansionDictionary previous = Modals.setDictionary( null );
+        try {
+            assertThat( "built in dictionary not used", 
+                    Modals.dictionary(), is( sameInstance( ExpansionDictionary.builtIn() ) ) );
+            assertThat( "built in dictionary not returned", 
+                    Modals.setDictionary( null ), is( sameInstance( ExpansionDictionary.builtIn() ) ) );
+            ExpansionDictionary updated = Modals.updateDictionary( current -> current.plus( 
+                    ExpansionDictionary.of( Collections.singletonMap( 
+                            "impl", Arrays.asList( "implementation" ) ) ) ) );
+            assertThat( "built in dictionary not updated", 
+                    updated.isContraction( "cant" ) && updated.isContraction( "impl" ), 
+                    is( true ) );
+            assertThat( "built in dictionary not replaced", 
+                    Modals.setDictionary( null ), is( sameInstance( updated ) ) );
+        }
+        finally {
+            Modals.setDictionary( previous );
+        }
+    }
+
+    @Test
+    public void normaliserDictionaryTest() {
+        ExpansionDictionary pinned = ExpansionDictionary.of( 
+                Collections.singletonMap( "impl", Arrays.asList( "implementation" ) ) );
+        IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+                .lowerCase( true )
+                .expandModals( true )
+                .expansions( pinned )
+                .build();
+        IdentifierNormaliser following = IdentifierNormaliser.builder()
+                .lowerCase( true )
+                .expandModals( true )
+                .build();
+
+        assertThat( "pinned dictionary not used", 
+                normaliser.normalise( "cantFindImpl" ), 
+                contains( "cant", "find", "implementation" ) );
+
+        ExpansionDictionary previous = Modals.setDictionary( pinned );
+        try {
+            assertThat( "current dictionary not used", 
+                    following.normalise( "cantFindImpl" ), 
+                    contains( "cant", "find", "implementation" ) );
+        }
+        finally {
+            Modals.setDictionary( previous );
+        }
+        assertThat( "restored dictionary not used", 
+                following.normalise( "cantFindImpl" ), 
+                contains( "can", "not", "find", "impl" ) );
+    }
+}
@@ -0,0 +1,105 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@code ExpansionTrie}.
+ * 
+ */
+public class ExpansionTrieTest {
+
+    private static final String[] WORDS = { "num", "of", "cfg", "a", "b", "idx", "x" };
+
+    @Test
+    public void longestMatchTest() {
+        ExpansionTrie trie = new ExpansionTrie( 
+                Arrays.asList( "num", "num of", "num of a", "cfg" ) );
+        List<String> tokens = Arrays.asList( "num", "of", "b", "num", "of", "a", "cfg" );
+
+        assertThat( "wrong longest entry", trie.maximumLength(), is( 3 ) );
+        assertThat( "shorter entry preferred", trie.longestMatch( tokens, 0 ), is( 1 ) );
+        assertThat( "longest entry not found", trie.longestMatch( tokens, 3 ), is( 2 ) );
+        assertThat( "entry found", trie.longestMatch( tokens, 2 ), 
+                is( ExpansionTrie.NOT_FOUND ) );
+        assertThat( "entry at end not found", trie.longestMatch( tokens, 6 ), is( 3 ) );
+        assertThat( "wrong length", trie.length( 2 ), is( 3 ) );
+        assertThat( "nodes not shared", trie.nodeCount(), is( 5 ) );
+    }
+
+    @Test
+    public void emptyTrieTest() {
+        ExpansionTrie trie = new ExpansionTrie( new ArrayList<>() );
+
+        assertThat( "entry found", trie.longestMatch( Arrays.asList( "num" ), 0 ), 
+                is( ExpansionTrie.NOT_FOUND ) );
+    }
+
+    @Test
+    public void randomEntriesTest() {
+        Random random = new Random( 20200318L );
+
+        for ( int round = 0; round < 200; round++ ) {
+            Set<String> entries = new LinkedHashSet<>();
+            int entryCount = 1 + random.nextInt( 30 );
+            while ( entries.size() < entryCount ) {
+                entries.add( String.join( " ", randomTokens( random, 1 + random.nextInt( 4 ) ) ) );
+            }
+            List<String> entryList = new ArrayList<>( entries );
+            ExpansionTrie trie = new ExpansionTrie( entryList );
+
+            List<String> tokens = randomTokens( random, random.nextInt( 12 ) );
+            for ( int i = 0; i < tokens.size(); i++ ) {
+                assertThat( "match differs at " + i + " of " + tokens + " in " + entryList, 
+                        trie.longestMatch( tokens, i ), 
+                        is( naiveLongestMatch( entryList, tokens, i ) ) );
+            }
+        }
+    }
+
+    private static List<String> randomTokens( Random random, int count ) {
+        List<String> tokens = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            tokens.add( WORDS[ random.nextInt( WORDS.length ) ] );
+        }
+        return tokens;
+    }
+
+    private static int naiveLongestMatch( List<String> entries, List<String> tokens, int from ) {
+        int match = ExpansionTrie.NOT_FOUND;
+        int matchLength = 0;
+        for ( int entry = 0; entry < entries.size(); entry++ ) {
+            List<String> entryTokens = Arrays.asList( entries.get( entry ).split( " " ) );
+            int length = entryTokens.size();
+            if ( length > matchLength && from + length <= tokens.size() 
+                    && tokens.subList( from, from + length ).equals( entryTokens ) ) {
+                match = entry;
+                matchLength = length;
+            }
+        }
+        return match;
+    }
+}
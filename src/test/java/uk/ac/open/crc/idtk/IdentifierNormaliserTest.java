@@ -0,0 +1,179 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@code IdentifierNormaliser}.
+ * 
+ */
+public class IdentifierNormaliserTest {
+
+    private static final String[] NAMES = {
+        "", "i", "getName", "LOGGER", "serialVersionUID", "topicSubMenu",
+        "topicSubmenu", "sub", "SUB_sub", "subSub_token", "menuSub", 
+        "cant_stop", "CantStop", "wontSubmit", "sub_cant", "SUBJECT_line", 
+        "isSubtypeOf", "didnt_sub", "shouldnt$$Sub$$Menu"
+    };
+
+    private static final SubTool.Policy[] POLICIES = { 
+        null, SubTool.Policy.CONCATENATE, SubTool.Policy.EXPAND 
+    };
+
+    @Test
+    public void tokenisationOnlyTest() {
+        IdentifierNormaliser normaliser = IdentifierNormaliser.builder().build();
+        
+        assertThat( "unexpected tokens", 
+                normaliser.normalise( "someThing_else" ), 
+                contains( "some", "Thing", "else" ) );
+    }
+
+    @Test
+    public void allStagesTest() {
+        IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+                .lowerCase( true )
+                .expandModals( true )
+                .subPolicy( SubTool.Policy.EXPAND )
+                .build();
+        
+        assertThat( "unexpected tokens", 
+                normaliser.normalise( "CantSubmitForm" ), 
+                contains( "can", "not", "sub", "mit", "form" ) );
+    }
+
+    @Test
+    public void matchesManualChainTest() {
+        for ( boolean lowerCase : new boolean[] { false, true } ) {
+            for ( boolean expandModals : new boolean[] { false, true } ) {
+                for ( SubTool.Policy policy : POLICIES ) {
+                    IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+                            .lowerCase( lowerCase )
+                            .expandModals( expandModals )
+                            .subPolicy( policy )
+                            .build();
+
+                    for ( String name : NAMES ) {
+                        assertThat( String.format( 
+                                "\"%s\" normalised differently (%b, %b, %s)", 
+                                        name, lowerCase, expandModals, policy ),
+                                normaliser.normalise( name ),
+                                is( manualChain( name, lowerCase, expandModals, policy ) ) );
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sinkCountTest() {
+        IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+                .lowerCase( true )
+                .subPolicy( SubTool.Policy.CONCATENATE )
+                .build();
+        StringBuilder seen = new StringBuilder();
+        
+        int count = normaliser.normalise( "topicSubMenu_sub", 
+                ( source, start, end ) -> seen.append( source, start, end ).append( '|' ) );
+        
+        assertThat( "unexpected token count", count, is( 3 ) );
+        assertThat( "unexpected tokens", seen.toString(), is( "topic|submenu|sub|" ) );
+    }
+
+    @Test
+    public void reusedBufferTest() {
+        IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+                .lowerCase( true )
+                .expandModals( true )
+                .subPolicy( SubTool.Policy.CONCATENATE )
+                .build();
+        StringBuilder buffer = new StringBuilder();
+        
+        for ( String name : NAMES ) {
+            List<String> tokens = new ArrayList<>();
+            normaliser.normalise( name, buffer, 
+                    ( source, start, end ) -> tokens.add( (String) source ) );
+            
+            assertThat( "\"" + name + "\" normalised differently", 
+                    tokens, is( normaliser.normalise( name ) ) );
+            assertThat( "buffer not left empty", buffer.length(), is( 0 ) );
+        }
+    }
+
+    @Test
+    public void mixedCaseDictionaryTest() {
+        Map<String, List<String>> entries = new HashMap<>();
+        entries.put( "Cfg", Arrays.asList( "configuration" ) );
+        entries.put( "impl", Arrays.asList( "implementation" ) );
+        ExpansionDictionary words = ExpansionDictionary.of( entries );
+        entries.put( "no op", Arrays.asList( "noop" ) );
+        ExpansionDictionary phrases = ExpansionDictionary.of( entries );
+        String[] names = { "loadCfg", "load_cfg", "CfgImpl", "noOpCfg", "IMPL" };
+
+        for ( boolean lowerCase : new boolean[] { false, true } ) {
+            for ( ExpansionDictionary dictionary : Arrays.asList( words, phrases ) ) {
+                IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+                        .lowerCase( lowerCase )
+                        .expandModals( true )
+                        .expansions( dictionary )
+                        .build();
+
+                for ( String name : names ) {
+                    List<String> tokens = SimpleNameTokeniser.split( name );
+                    if ( lowerCase ) {
+                        tokens = tokens.stream()
+                                .map( String::toLowerCase )
+                                .collect( Collectors.toList() );
+                    }
+                    assertThat( String.format( "\"%s\" normalised differently (%b, %d)", 
+                                    name, lowerCase, dictionary.size() ),
+                            normaliser.normalise( name ),
+                            is( dictionary.expand( tokens ) ) );
+                }
+            }
+        }
+    }
+
+    private static List<String> manualChain( 
+            String name, 
+            boolean lowerCase, 
+            boolean expandModals, 
+            SubTool.Policy policy ) {
+        List<String> tokens = SimpleNameTokeniser.split( name );
+        if ( lowerCase ) {
+            tokens = tokens.stream()
+                    .map( String::toLowerCase )
+                    .collect( Collectors.toList() );
+        }
+        if ( expandModals ) {
+            tokens = Modals.expand( tokens );
+        }
+        if ( policy != null ) {
+            tokens = SubTool.process( tokens, policy );
+        }
+        return tokens;
+    }
+}
@@ -81,4 +81,38 @@ public class ModalsTest {
 		expanded, 
 		contains("can","not", "should", "not", "did","not"));
     }
+    
+    
+    @Test
+    public void unchangedListTest() {
+	List<String> tokens = new ArrayList<>();
+	tokens.add( "get" );
+	tokens.add( "name" );
+	
+	assertThat("list without contractions copied", 
+		Modals.expand( tokens ), 
+		is(sameInstance(tokens)));
+    }
+    
+    
+    @Test
+    public void ignoreCaseLookupTest() {
+	String name = "shouldntCANTWontCanter";
+	
+	assertThat("'shouldnt' not found", 
+		Modals.isModalIgnoreCase( name, 0, 8 ), 
+		is(true));
+	assertThat("'CANT' not found", 
+		Modals.expansionIgnoreCase( name, 8, 12 ), 
+		contains("can","not"));
+	assertThat("'Wont' not found", 
+		Modals.expansionIgnoreCase( name, 12, 16 ), 
+		contains("will","not"));
+	assertThat("'Canter' found", 
+		Modals.isModalIgnoreCase( name, 16, 22 ), 
+		is(false));
+	assertThat("exact case lookup ignored case", 
+		Modals.isModal( "CANT" ), 
+		is(false));
+    }
 }
@@ -0,0 +1,82 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@code PackageTrie}.
+ * 
+ */
+public class PackageTrieTest {
+
+    @Test
+    public void sharedPrefixTest() {
+        PackageTrie trie = new PackageTrie();
+        int util = trie.intern( "java.util" );
+        int concurrent = trie.intern( "java.util.concurrent" );
+        int io = trie.intern( "java.io" );
+
+        assertThat( "unexpected size", trie.size(), is( 5 ) );
+        assertThat( "node not found", trie.find( "java.util" ), is( util ) );
+        assertThat( "unexpected parent", trie.parent( concurrent ), is( util ) );
+        assertThat( "unexpected segment", trie.segment( concurrent ), is( "concurrent" ) );
+        assertThat( "unexpected name", trie.name( concurrent ), is( "java.util.concurrent" ) );
+        assertThat( "unexpected name", trie.name( trie.parent( util ) ), is( "java" ) );
+        assertThat( "not under prefix", trie.isUnder( concurrent, util ), is( true ) );
+        assertThat( "under sibling", trie.isUnder( io, util ), is( false ) );
+        assertThat( "partial segment matched", trie.find( "java.uti" ), is( PackageTrie.NOT_FOUND ) );
+        assertThat( "unexpected root", trie.find( "" ), is( PackageTrie.ROOT ) );
+    }
+
+    @Test
+    public void typeNameTest() {
+        PackageTrie trie = new PackageTrie();
+        TypeName map = trie.add( new TypeName( "java.util.Map<String,java.util.List<Integer>>" ) );
+        TypeName lock = trie.add( new TypeName( "java.util.concurrent.locks.Lock" ) );
+        TypeName list = trie.add( new TypeName( "java.util.List" ) );
+        TypeName string = trie.add( new TypeName( "String" ) );
+
+        assertThat( "type name changed", map, is( new TypeName( "java.util.Map<String,java.util.List<Integer>>" ) ) );
+        assertThat( "package name not shared", map.packageName(), is( sameInstance( list.packageName() ) ) );
+        assertThat( "type argument not shared", 
+                map.parameterAt( 1 ).fqn(), is( sameInstance( list.fqn() ) ) );
+        assertThat( "unexpected node", trie.nodeOf( map ), is( trie.find( "java.util" ) ) );
+        assertThat( "unexpected node", trie.nodeOf( string ), is( PackageTrie.ROOT ) );
+        assertThat( "node for absent package", 
+                trie.nodeOf( new TypeName( "javax.swing.JList" ) ), is( PackageTrie.NOT_FOUND ) );
+
+        assertThat( "unexpected types", trie.typesIn( "java.util" ), containsInAnyOrder( map, list ) );
+        assertThat( "unexpected types", trie.typesUnder( "java.util" ), containsInAnyOrder( map, list, lock ) );
+        assertThat( "unexpected types", trie.typesUnder( "java.util.concurrent" ), contains( lock ) );
+        assertThat( "unexpected types", trie.typesUnder( "javax" ), is( empty() ) );
+    }
+
+    @Test
+    public void duplicateTypeNameTest() {
+        PackageTrie trie = new PackageTrie();
+        TypeName first = trie.add( new TypeName( "java.util.List<String>" ) );
+        TypeName second = trie.add( new TypeName( "java.util.List<String>" ) );
+        trie.add( first );
+
+        assertThat( "equal type not shared", second, is( sameInstance( first ) ) );
+        assertThat( "duplicate types held", trie.typesIn( "java.util" ).size(), is( 1 ) );
+        assertThat( "unexpected types", trie.typesUnder( "java" ), contains( first ) );
+    }
+}
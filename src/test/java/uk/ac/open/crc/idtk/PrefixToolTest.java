@@ -0,0 +1,143 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@code PrefixTool}.
+ * 
+ */
+public class PrefixToolTest {
+
+    private static final String[] TOKENS = { 
+        "sub", "SUB", "Sub", "submenu", "SubMenu", "su", "s", "", "super", 
+        "Superclass", "non", "nonblocking", "un", "undo", "re", "Redo", 
+        "pre", "prefix", "multi", "Multiline", "menu", "item", "ſub" 
+    };
+
+    @Test
+    public void expandTest() {
+        assertThat( "wrong expansion", 
+                PrefixTool.COMMON.process( 
+                        Arrays.asList( "Superclass", "of", "nonblocking", "Redo" ), 
+                        SubTool.Policy.EXPAND ), 
+                contains( "Super", "class", "of", "non", "blocking", "Re", "do" ) );
+    }
+
+    @Test
+    public void concatenateTest() {
+        assertThat( "wrong concatenation", 
+                PrefixTool.COMMON.process( 
+                        Arrays.asList( "non", "blocking", "MULTI", "line", "un" ), 
+                        SubTool.Policy.CONCATENATE ), 
+                contains( "nonblocking", "MULTIline", "un" ) );
+    }
+
+    @Test
+    public void longestPrefixTest() {
+        PrefixTool tool = PrefixTool.of( "sub", "SUBTER", "su" );
+
+        assertThat( "wrong prefix set", tool.prefixes(), contains( "sub", "subter", "su" ) );
+        assertThat( "longest prefix not used", tool.prefixLength( "Subterfuge" ), is( 6 ) );
+        assertThat( "wrong prefix", tool.prefixLength( "sump" ), is( 2 ) );
+        assertThat( "prefix found", tool.prefixLength( "menu" ), is( 0 ) );
+        assertThat( "token is not prefix", tool.isPrefix( "SUBTER" ), is( true ) );
+        assertThat( "token is prefix", tool.isPrefix( "subt" ), is( false ) );
+    }
+
+    @Test
+    public void unchangedListTest() {
+        List<String> tokens = Arrays.asList( "menu", "item" );
+
+        assertThat( "unchanged list copied", 
+                PrefixTool.COMMON.process( tokens, SubTool.Policy.EXPAND ), 
+                is( sameInstance( tokens ) ) );
+        assertThat( "unchanged list copied", 
+                PrefixTool.COMMON.process( tokens, SubTool.Policy.CONCATENATE ), 
+                is( sameInstance( tokens ) ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void emptyPrefixTest() {
+        PrefixTool.of( "sub", "" );
+    }
+
+    @Test
+    public void subPresetTest() {
+        Random random = new Random( 20200320L );
+
+        for ( int i = 0; i < 20000; i++ ) {
+            List<String> tokens = new ArrayList<>();
+            int length = random.nextInt( 6 );
+            for ( int j = 0; j < length; j++ ) {
+                tokens.add( TOKENS[ random.nextInt( TOKENS.length ) ] );
+            }
+            for ( SubTool.Policy policy : SubTool.Policy.values() ) {
+                assertThat( "processing differs for " + tokens + " " + policy, 
+                        PrefixTool.SUB.process( tokens, policy ), 
+                        is( referenceProcess( tokens, policy ) ) );
+            }
+        }
+    }
+
+    @Test
+    public void normaliserTest() {
+        IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+                .prefixes( PrefixTool.COMMON )
+                .subPolicy( SubTool.Policy.EXPAND )
+                .build();
+
+        assertThat( "prefixes not expanded", 
+                normaliser.normalise( "superclassIsNonblocking" ), 
+                contains( "super", "class", "Is", "Non", "blocking" ) );
+    }
+
+    // the two pass implementation SubTool used, matching as regionMatches
+    private static List<String> referenceProcess( List<String> tokens, SubTool.Policy policy ) {
+        List<String> processed = new ArrayList<>();
+        if ( policy == SubTool.Policy.CONCATENATE ) {
+            for ( int i = 0; i < tokens.size(); i++ ) {
+                String token = tokens.get( i );
+                if ( "sub".equalsIgnoreCase( token ) && i < tokens.size() - 1 ) {
+                    processed.add( token + tokens.get( ++i ) );
+                }
+                else {
+                    processed.add( token );
+                }
+            }
+        }
+        else {
+            for ( String token : tokens ) {
+                if ( token.regionMatches( true, 0, "sub", 0, 3 ) ) {
+                    processed.add( token.substring( 0, 3 ) );
+                    processed.add( token.substring( 3 ) );
+                }
+                else {
+                    processed.add( token );
+                }
+            }
+        }
+        return processed;
+    }
+}
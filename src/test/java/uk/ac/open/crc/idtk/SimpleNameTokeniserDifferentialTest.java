@@ -0,0 +1,159 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Checks the scanning tokeniser against the regular expression based 
+ * implementation it replaced.
+ */
+public class SimpleNameTokeniserDifferentialTest {
+
+    private static final String[] NAMES = {
+        "", "_", "$$", "a", "A", "something", "someThing", "someThingElse",
+        "someThing2Eat", "some_thing", "some__thing____else", 
+        "$$some_$_thing___$_else___$$", "HTMLParser", "parseHTMLString",
+        "getX", "aBcDeF", "serialVersionUID", "LOGGER", "MAX_VALUE", 
+        "_private", "trailing_", "x1Y2z3", "naïveÉtude", "ǅungla", 
+        "straße_Größe", "𝐚𝐀", "a𝐀b", 
+        "𝐀𝐚𝐀", "lone\uD800High", 
+        "lone\uDC00Low", "a\uD835_\uDC00"
+    };
+
+    // mixes ASCII, Latin-1, title case, digits, separators, 
+    // supplementary letters and lone surrogates
+    private static final String[] ALPHABET = {
+        "a", "z", "A", "Z", "0", "9", "_", "$", "é", "É", "ß", "ǅ", 
+        "ω", "Ω", "𝐚", "𝐀", "\uD800", 
+        "\uDC00", "中", " "
+    };
+
+    @Test
+    public void handPickedNamesTest() {
+        for ( String name : NAMES ) {
+            assertThat( "tokenisation differs for \"" + name + "\"",
+                    SimpleNameTokeniser.split( name ), 
+                    is( regexSplit( name ) ) );
+        }
+    }
+
+    @Test
+    public void randomNamesTest() {
+        Random random = new Random( 20200101L );
+
+        for ( int i = 0; i < 50000; i++ ) {
+            StringBuilder name = new StringBuilder();
+            int length = random.nextInt( 16 );
+            for ( int j = 0; j < length; j++ ) {
+                name.append( ALPHABET[ random.nextInt( ALPHABET.length ) ] );
+            }
+
+            String candidate = name.toString();
+            assertThat( "tokenisation differs for \"" + candidate + "\"",
+                    SimpleNameTokeniser.split( candidate ), 
+                    is( regexSplit( candidate ) ) );
+        }
+    }
+
+    @Test
+    public void characterClassTest() {
+        for ( int codePoint = 0; codePoint <= Character.MAX_CODE_POINT; codePoint++ ) {
+            String character = new String( Character.toChars( codePoint ) );
+            byte expected = codePoint == '_' || codePoint == '$' ? CharacterClass.SEPARATOR
+                    : character.matches( "\\p{Ll}" ) ? CharacterClass.LOWER
+                    : character.matches( "\\p{Lu}" ) ? CharacterClass.UPPER
+                    : character.matches( "\\p{Nd}" ) ? CharacterClass.DIGIT
+                    : CharacterClass.OTHER;
+            assertThat( String.format( "unexpected class for U+%04X", codePoint ),
+                    CharacterClass.of( codePoint ), 
+                    is( expected ) );
+        }
+    }
+
+    @Test
+    public void bufferSplitTest() {
+        Random random = new Random( 20200202L );
+        TokenSpans expected = new TokenSpans();
+        TokenSpans actual = new TokenSpans();
+
+        for ( int i = 0; i < 5000; i++ ) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt( 300 );
+            boolean asciiOnly = random.nextInt( 4 ) > 0;
+            for ( int j = 0; j < length; j++ ) {
+                String next = ALPHABET[ random.nextInt( ALPHABET.length ) ];
+                if ( ! asciiOnly || next.charAt( 0 ) < 128 ) {
+                    text.append( next );
+                }
+            }
+
+            char[] buffer = text.toString().toCharArray();
+            int from = buffer.length == 0 ? 0 : random.nextInt( buffer.length );
+            int to = from + random.nextInt( buffer.length - from + 1 );
+            String region = new String( buffer, from, to - from );
+
+            SimpleNameTokeniser.splitOffsets( region, expected );
+            SimpleNameTokeniser.splitOffsets( buffer, from, to, actual );
+
+            assertThat( "token count differs for \"" + region + "\"", 
+                    actual.size(), 
+                    is( expected.size() ) );
+            for ( int t = 0; t < expected.size(); t++ ) {
+                assertThat( "token start differs for \"" + region + "\"", 
+                        actual.start( t ), 
+                        is( expected.start( t ) + from ) );
+                assertThat( "token end differs for \"" + region + "\"", 
+                        actual.end( t ), 
+                        is( expected.end( t ) + from ) );
+            }
+        }
+    }
+
+    // the original implementation of SimpleNameTokeniser.split()
+    private static final Pattern SEPARATOR_PATTERN = 
+            Pattern.compile( "[\\_\\$]+" );
+    private static final Pattern LC_UC_PATTERN = 
+            Pattern.compile( "\\p{Ll}\\p{Lu}" );
+
+    private static List<String> regexSplit( String name ) {
+        List<String> fragments = SEPARATOR_PATTERN.splitAsStream( name )
+                .filter( s -> s.length() > 0 )
+                .collect( Collectors.toList() );
+
+        List<String> tokens = new ArrayList<>();
+        for ( String fragment : fragments ) {
+            Matcher matcher = LC_UC_PATTERN.matcher( fragment );
+            int start = 0;
+            while ( matcher.find() ) {
+                tokens.add( fragment.substring( start, matcher.end() - 1 ) );
+                start = matcher.end() - 1;
+            }
+            tokens.add( fragment.substring( start ) );
+        }
+
+        return tokens;
+    }
+}
@@ -15,7 +15,10 @@
  */
 package uk.ac.open.crc.idtk;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -111,4 +114,92 @@ public class SimpleNameTokeniserTest {
        assertTrue("unrecognised string returned", "thing".equals( tokens.get( 1 ) ));
        assertTrue("unrecognised string returned", "else".equals( tokens.get( 2 ) ));
     }
+
+    @Test
+    public void spansTest() {
+       TokenSpans spans = new TokenSpans( 1 );
+       int count = SimpleNameTokeniser.splitOffsets( "$$some_$_thingElse", spans );
+
+       assertTrue("expected three tokens", count == 3 && spans.size() == 3 );
+       assertTrue("unexpected first span", spans.start( 0 ) == 2 && spans.end( 0 ) == 6 );
+       assertTrue("unexpected second span", spans.start( 1 ) == 9 && spans.end( 1 ) == 14 );
+       assertTrue("unexpected third span", spans.start( 2 ) == 14 && spans.end( 2 ) == 18 );
+       assertTrue("unrecognised string returned", "Else".equals( spans.token( "$$some_$_thingElse", 2 ) ));
+    }
+
+    @Test
+    public void spansAreResetTest() {
+       TokenSpans spans = new TokenSpans();
+       SimpleNameTokeniser.splitOffsets( "someThingElse", spans );
+       int count = SimpleNameTokeniser.splitOffsets( "thing", spans );
+
+       assertTrue("expected one token", count == 1 && spans.size() == 1 );
+       assertTrue("unexpected span", spans.start( 0 ) == 0 && spans.end( 0 ) == 5 );
+    }
+
+    @Test
+    public void offsetArrayTest() {
+       int[] offsets = new int[ 4 ];
+       int count = SimpleNameTokeniser.splitOffsets( "someThingElse", offsets );
+
+       assertTrue("expected three tokens counted", count == 3 );
+       assertTrue("unexpected first span", offsets[ 0 ] == 0 && offsets[ 1 ] == 4 );
+       assertTrue("unexpected second span", offsets[ 2 ] == 4 && offsets[ 3 ] == 9 );
+    }
+
+    @Test
+    public void sinkTest() {
+       StringBuilder seen = new StringBuilder();
+       TokenSink sink = ( source, start, end ) -> 
+               seen.append( source, start, end ).append( '|' );
+
+       int first = SimpleNameTokeniser.split( "someThing_else", sink );
+       int second = SimpleNameTokeniser.split( new StringBuilder( "$$x" ), sink );
+
+       assertTrue("unexpected token counts", first == 3 && second == 1 );
+       assertTrue(String.format("unexpected tokens: \"%s\"", seen), "some|Thing|else|x|".equals( seen.toString() ));
+    }
+
+    @Test
+    public void splitAllTest() {
+       String[] names = batchOfNames();
+       List<List<String>> tokens = SimpleNameTokeniser.splitAll( names );
+
+       assertTrue("unexpected number of results", tokens.size() == names.length );
+       for ( int i = 0; i < names.length; i++ ) {
+           assertTrue("result out of order at " + i, SimpleNameTokeniser.split( names[ i ] ).equals( tokens.get( i ) ));
+       }
+    }
+
+    @Test
+    public void spliteratorTest() {
+       String[] names = batchOfNames();
+       List<List<String>> tokens = StreamSupport.stream( SimpleNameTokeniser.spliterator( names ), true )
+               .collect( Collectors.toList() );
+
+       assertTrue("unexpected number of results", tokens.size() == names.length );
+       for ( int i = 0; i < names.length; i++ ) {
+           assertTrue("result out of order at " + i, SimpleNameTokeniser.split( names[ i ] ).equals( tokens.get( i ) ));
+       }
+    }
+
+    @Test
+    public void collectorTest() {
+       String[] names = batchOfNames();
+       List<List<String>> tokens = Arrays.stream( names ).parallel()
+               .collect( SimpleNameTokeniser.toTokenLists() );
+
+       assertTrue("unexpected number of results", tokens.size() == names.length );
+       for ( int i = 0; i < names.length; i++ ) {
+           assertTrue("result out of order at " + i, SimpleNameTokeniser.split( names[ i ] ).equals( tokens.get( i ) ));
+       }
+    }
+
+    private static String[] batchOfNames() {
+       String[] names = new String[ 20000 ];
+       for ( int i = 0; i < names.length; i++ ) {
+           names[ i ] = "someName" + i + "_forThe_batch";
+       }
+       return names;
+    }
 }
@@ -0,0 +1,172 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@code TokenCache}.
+ * 
+ */
+public class TokenCacheTest {
+
+    @Test
+    public void cachedTokensTest() {
+        TokenCache cache = TokenCache.forTokeniser( 100 );
+        
+        List<String> first = cache.tokens( "getName" );
+        List<String> second = cache.tokens( "getName" );
+        
+        assertThat( "unexpected tokens", first, contains( "get", "Name" ) );
+        assertThat( "cached list not shared", second, is( sameInstance( first ) ) );
+        assertThat( "unexpected hit count", cache.statistics().hitCount(), is( 1L ) );
+        assertThat( "unexpected miss count", cache.statistics().missCount(), is( 1L ) );
+    }
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void unmodifiableTokensTest() {
+        TokenCache.forTokeniser( 10 ).tokens( "getName" ).add( "oops" );
+    }
+
+    @Test
+    public void normaliserCacheTest() {
+        IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+                .lowerCase( true )
+                .build();
+        TokenCache cache = TokenCache.forNormaliser( normaliser, 10 );
+        
+        assertThat( "unexpected tokens", 
+                cache.tokens( "LOGGER_Name" ), 
+                contains( "logger", "name" ) );
+    }
+
+    @Test
+    public void replacedDictionaryTest() {
+        IdentifierNormaliser normaliser = IdentifierNormaliser.builder()
+                .lowerCase( true )
+                .expandModals( true )
+                .build();
+        TokenCache cache = TokenCache.forNormaliser( normaliser, 10 );
+        ExpansionDictionary previous = Modals.setDictionary( null );
+        try {
+            assertThat( "unexpected tokens", 
+                    cache.tokens( "cantFindImpl" ), 
+                    contains( "can", "not", "find", "impl" ) );
+
+            Modals.setDictionary( ExpansionDictionary.of( 
+                    Collections.singletonMap( "impl", Arrays.asList( "implementation" ) ) ) );
+            assertThat( "stale tokens returned", 
+                    cache.tokens( "cantFindImpl" ), 
+                    contains( "cant", "find", "implementation" ) );
+        }
+        finally {
+            Modals.setDictionary( previous );
+        }
+    }
+
+    @Test
+    public void tinyCacheAdmissionTest() {
+        for ( int maximumSize = 1; maximumSize <= 4; maximumSize++ ) {
+            TokenCache cache = TokenCache.forTokeniser( maximumSize );
+            // fill the protected area with names seen twice
+            for ( int i = 0; i < maximumSize; i++ ) {
+                cache.tokens( "name" + i );
+                cache.tokens( "name" + i );
+            }
+
+            List<String> inserted = cache.tokens( "recentName" );
+            assertThat( "recent name not retained by cache of size " + maximumSize, 
+                    cache.tokens( "recentName" ), is( sameInstance( inserted ) ) );
+        }
+    }
+
+    @Test
+    public void boundedSizeTest() {
+        TokenCache cache = TokenCache.forTokeniser( 64 );
+        
+        for ( int i = 0; i < 1000; i++ ) {
+            cache.tokens( "name" + i );
+        }
+        
+        CacheStatistics statistics = cache.statistics();
+        assertThat( "cache exceeded its bound", statistics.size(), is( lessThanOrEqualTo( 64L ) ) );
+        assertThat( "unexpected eviction count", 
+                statistics.evictionCount(), 
+                is( 1000L - statistics.size() ) );
+    }
+
+    @Test
+    public void scanResistanceTest() {
+        TokenCache cache = TokenCache.forTokeniser( 64 );
+        String[] frequent = { "i", "getName", "LOGGER", "serialVersionUID" };
+        
+        for ( int i = 0; i < 2; i++ ) {
+            for ( String name : frequent ) {
+                cache.tokens( name );
+            }
+        }
+        for ( int i = 0; i < 1000; i++ ) {
+            cache.tokens( "uniqueName" + i );
+        }
+        
+        long hits = cache.statistics().hitCount();
+        for ( String name : frequent ) {
+            cache.tokens( name );
+        }
+        assertThat( "frequently used names flushed by a scan", 
+                cache.statistics().hitCount() - hits, 
+                is( (long) frequent.length ) );
+    }
+
+    @Test
+    public void concurrentUseTest() throws Exception {
+        TokenCache cache = TokenCache.forTokeniser( 128 );
+        ExecutorService executor = Executors.newFixedThreadPool( 8 );
+        List<Future<Boolean>> results = new ArrayList<>();
+        
+        try {
+            for ( int t = 0; t < 8; t++ ) {
+                final int seed = t;
+                results.add( executor.submit( () -> {
+                    for ( int i = 0; i < 20000; i++ ) {
+                        String name = "someName_" + ( ( i * 31 + seed ) % 500 );
+                        if ( ! cache.tokens( name ).equals( SimpleNameTokeniser.split( name ) ) ) {
+                            return false;
+                        }
+                    }
+                    return true;
+                } ) );
+            }
+            for ( Future<Boolean> result : results ) {
+                assertThat( "inconsistent tokens under concurrent use", result.get(), is( true ) );
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertThat( "cache exceeded its bound", cache.statistics().size(), is( lessThanOrEqualTo( 128L ) ) );
+    }
+}
@@ -0,0 +1,89 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@code TokenDictionary}.
+ * 
+ */
+public class TokenDictionaryTest {
+
+    @Test
+    public void denseIdentifiersTest() {
+        TokenDictionary dictionary = new TokenDictionary();
+        
+        assertThat( "unexpected id for first token", dictionary.intern( "get" ), is( 0 ) );
+        assertThat( "unexpected id for second token", dictionary.intern( "name" ), is( 1 ) );
+        assertThat( "token not found again", dictionary.intern( "get" ), is( 0 ) );
+        assertThat( "unexpected size", dictionary.size(), is( 2 ) );
+        assertThat( "unexpected token", dictionary.token( 1 ), is( "name" ) );
+        assertThat( "unexpected length", dictionary.length( 1 ), is( 4 ) );
+    }
+
+    @Test
+    public void spanLookupTest() {
+        TokenDictionary dictionary = new TokenDictionary();
+        dictionary.intern( "Name" );
+        
+        assertThat( "span not found", dictionary.lookup( "getName", 3, 7 ), is( 0 ) );
+        assertThat( "absent token found", dictionary.lookup( "getName", 0, 3 ), is( TokenDictionary.NOT_FOUND ) );
+        assertThat( "lookup added a token", dictionary.size(), is( 1 ) );
+        assertThat( "case ignored", dictionary.lookup( "name" ), is( TokenDictionary.NOT_FOUND ) );
+    }
+
+    @Test
+    public void growthTest() {
+        TokenDictionary dictionary = new TokenDictionary( 0 );
+        
+        for ( int i = 0; i < 10000; i++ ) {
+            assertThat( "unexpected id", dictionary.intern( "token" + i ), is( i ) );
+        }
+        for ( int i = 0; i < 10000; i++ ) {
+            assertThat( "token lost on growth", dictionary.lookup( "token" + i ), is( i ) );
+            assertThat( "token content lost on growth", dictionary.token( i ), is( "token" + i ) );
+        }
+        assertThat( "empty token found", dictionary.lookup( "" ), is( TokenDictionary.NOT_FOUND ) );
+    }
+
+    @Test
+    public void splitToIdsTest() {
+        TokenDictionary dictionary = new TokenDictionary();
+        
+        int[] first = SimpleNameTokeniser.splitToIds( "getName", dictionary );
+        int[] second = SimpleNameTokeniser.splitToIds( "set_name_Name", dictionary );
+        
+        assertThat( "unexpected ids", first, is( new int[] { 0, 1 } ) );
+        assertThat( "unexpected ids", second, is( new int[] { 2, 3, 1 } ) );
+        assertThat( "unexpected token", dictionary.token( 3 ), is( "name" ) );
+    }
+
+    @Test
+    public void splitToIdsArrayTest() {
+        TokenDictionary dictionary = new TokenDictionary();
+        int[] ids = new int[ 2 ];
+        
+        int count = SimpleNameTokeniser.splitToIds( "someThingElse", dictionary, ids );
+        
+        assertThat( "unexpected count", count, is( 3 ) );
+        assertThat( "unexpected ids", ids, is( new int[] { 0, 1 } ) );
+        assertThat( "token beyond array not added", dictionary.lookup( "Else" ), is( 2 ) );
+    }
+}
@@ -0,0 +1,88 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@code TypeNameArena}.
+ * 
+ */
+public class TypeNameArenaTest {
+
+    @Test
+    public void roundTripTest() {
+        TypeNameArena arena = new TypeNameArena();
+        TypeName[] typeNames = {
+            new TypeName( "java.util.Map<String,java.util.List<Integer>>[]" ),
+            new TypeName( "org.foo.bar.SomeThing.InnerClass" ),
+            new TypeName( "Map.Entry<K, V>" ),
+            new TypeName( TypeName.NO_TYPE ),
+            new TypeName( "List<#no type#>" ),
+            new TypeName( null, "Foo.Bar" ),
+            new TypeName( "pkg", "int[][]" )
+        };
+
+        for ( TypeName typeName : typeNames ) {
+            TypeName copy = arena.toTypeName( arena.add( typeName ) );
+            assertThat( "round trip differs", copy, is( typeName ) );
+            assertThat( "unexpected acronym", copy.typeAcronym(), is( typeName.typeAcronym() ) );
+        }
+    }
+
+    @Test
+    public void sharedNamesTest() {
+        TypeNameArena arena = new TypeNameArena();
+        int first = arena.add( new TypeName( "Map<String,String>" ) );
+        int second = arena.add( new TypeName( "Set<String>" ) );
+
+        assertThat( "unexpected size", arena.size(), is( 5 ) );
+        assertThat( "name not shared", 
+                arena.identifierNameId( arena.firstChild( second ) ), 
+                is( arena.identifierNameId( arena.firstChild( first ) ) ) );
+        assertThat( "unexpected parameter count", arena.parameterCount( first ), is( 2 ) );
+        assertThat( "root has sibling", arena.nextSibling( first ), is( TypeNameArena.NONE ) );
+    }
+
+    @Test
+    public void cursorTest() {
+        TypeNameArena arena = new TypeNameArena();
+        int node = arena.add( new TypeName( "Map<String,List<Integer>>[]" ) );
+        TypeNameArena.Cursor cursor = arena.cursor( node );
+        StringBuilder walk = new StringBuilder();
+
+        // depth first, without recursion
+        boolean more = true;
+        while ( more ) {
+            walk.append( cursor.identifierName() ).append( ':' ).append( cursor.depth() ).append( ' ' );
+            if ( ! cursor.toFirstChild() ) {
+                while ( ! cursor.toNextSibling() && ( more = cursor.toParent() ) ) {
+                }
+            }
+        }
+
+        assertThat( "unexpected walk", walk.toString(), is( "Map:0 String:1 List:1 Integer:2 " ) );
+        assertThat( "unexpected dimensions", arena.cursor( node ).arrayDimensions(), is( 1 ) );
+    }
+
+    @Test( expected = IndexOutOfBoundsException.class )
+    public void missingNodeTest() {
+        new TypeNameArena().identifierName( 0 );
+    }
+}
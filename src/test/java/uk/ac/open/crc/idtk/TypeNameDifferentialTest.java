@@ -0,0 +1,136 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Checks the type name parser against the regular expression based 
+ * implementation it replaced.
+ */
+public class TypeNameDifferentialTest {
+
+    private static final String[] TYPE_NAMES = {
+        "SomeThing", "org.foo.bar.SomeThing[][]", "SomeThing<String,HashMap>",
+        "org.foo.bar.SomeThing.InnerClass", "int", "int[]", "T", 
+        "java.util.Map<java.lang.String, java.util.List<java.lang.Integer>>",
+        "Map.Entry<K, V>[]", "java.util.Map.Entry<K,V>", 
+        "HashMap<String,HashMap<String,ArrayList<Integer>>>",
+        "Map<String[],int[][]>", "List< String>", "List<String >", "List<>",
+        "Map<A,>", "Map<,B>", "X<", "<", "<>", ">", "a.B.c.D", ".Foo", 
+        "foo.", "foo.bar", "Foo.bar", "#no type#", "List<#no type#>",
+        "Map<#no type#, #no type#>", "a.b\nc.D", "x .Y", "A>B<C,D>",
+        "Map<K,V>>,<W>", "java.util.List<?>", 
+        "java.util.List<? extends java.lang.Number>", "a.b.C<d.E,f.G<h.I>>[]"
+    };
+
+    private static final String[] FRAGMENTS = {
+        "java", "util", "Map", "String", "a", "B", "z", "Z", ".", ".", "<", 
+        "<", ">", ">", ",", ",", " ", "[", "]", "#no type#", "\n", "\u0085", 
+        "?", "$", "1", "é"
+    };
+
+    @Test
+    public void handPickedTypeNamesTest() {
+        for ( String typeName : TYPE_NAMES ) {
+            checkTypeName( typeName );
+        }
+    }
+
+    @Test
+    public void randomTypeNamesTest() {
+        Random random = new Random( 20200303L );
+
+        for ( int i = 0; i < 50000; i++ ) {
+            StringBuilder typeName = new StringBuilder();
+            int length = random.nextInt( 20 );
+            for ( int j = 0; j < length; j++ ) {
+                typeName.append( FRAGMENTS[ random.nextInt( FRAGMENTS.length ) ] );
+            }
+            checkTypeName( typeName.toString() );
+        }
+    }
+
+    private static void checkTypeName( String typeName ) {
+        assertThat( "parse differs for \"" + typeName + "\"",
+                describe( () -> new TypeName( typeName ) ), 
+                is( describeReference( () -> new ReferenceTypeName( typeName ) ) ) );
+        assertThat( "parse with package differs for \"" + typeName + "\"",
+                describe( () -> new TypeName( "pkg", typeName ) ), 
+                is( describeReference( () -> new ReferenceTypeName( "pkg", typeName ) ) ) );
+        assertThat( "parse with null package differs for \"" + typeName + "\"",
+                describe( () -> new TypeName( null, typeName ) ), 
+                is( describeReference( () -> new ReferenceTypeName( null, typeName ) ) ) );
+        assertThat( "lazy parse differs for \"" + typeName + "\"",
+                describe( () -> TypeName.lazy( typeName ) ), 
+                is( describeReference( () -> new ReferenceTypeName( typeName ) ) ) );
+    }
+
+    private static String describe( Supplier<TypeName> factory ) {
+        try {
+            return describe( factory.get() );
+        }
+        catch ( RuntimeException e ) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String describe( TypeName typeName ) {
+        StringBuilder description = new StringBuilder()
+                .append( typeName.identifierName() ).append( '|' )
+                .append( typeName.packageName() ).append( '|' )
+                .append( typeName.fqn() ).append( '|' )
+                .append( typeName.arrayDimensions() ).append( '|' )
+                .append( typeName.typeAcronym() ).append( '{' );
+        if ( typeName.typeAcronym() != null ) {
+            for ( TypeName parameter : typeName.parameterisedTypes() ) {
+                description.append( describe( parameter ) ).append( ';' );
+            }
+        }
+        return description.append( '}' ).toString();
+    }
+
+    private static String describeReference( Supplier<ReferenceTypeName> factory ) {
+        try {
+            return describe( factory.get() );
+        }
+        catch ( RuntimeException e ) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String describe( ReferenceTypeName typeName ) {
+        StringBuilder description = new StringBuilder()
+                .append( typeName.identifierName() ).append( '|' )
+                .append( typeName.packageName() ).append( '|' )
+                .append( typeName.fqn() ).append( '|' )
+                .append( typeName.arrayDimensions() ).append( '|' )
+                .append( typeName.typeAcronym() ).append( '{' );
+        List<ReferenceTypeName> parameters = typeName.parameterisedTypes;
+        if ( parameters != null ) {
+            for ( ReferenceTypeName parameter : parameters ) {
+                description.append( describe( parameter ) ).append( ';' );
+            }
+        }
+        return description.append( '}' ).toString();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+    Copyright (C) 2020 Simon Butler
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+
+package uk.ac.open.crc.idtk;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@code TypeNameReader}.
+ * 
+ */
+public class TypeNameReaderTest {
+
+    private static final String[] TYPE_NAMES = {
+        "java.util.Map<String,java.util.List<Integer>>[]", "int", "T", 
+        "HashMap<String,HashMap<String,ArrayList<Integer>>>", "Map.Entry<K, V>",
+        "org.foo.bar.SomeThing.InnerClass", "Größe", "#no type#"
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void inputOrderTest() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for ( int i = 0; i < 2000; i++ ) {
+            lines.add( TYPE_NAMES[ i % TYPE_NAMES.length ] );
+        }
+        Path file = write( String.join( "\n", lines ) + "\n" );
+
+        // small chunks so that lines cross the chunk boundaries
+        List<TypeName> typeNames = new ArrayList<>();
+        TypeNameReader.read( file, typeNames::add, 64 );
+
+        assertThat( "unexpected count", typeNames.size(), is( lines.size() ) );
+        for ( int i = 0; i < lines.size(); i++ ) {
+            assertThat( "unexpected type name", typeNames.get( i ), is( new TypeName( lines.get( i ) ) ) );
+        }
+        assertThat( "unexpected type names", TypeNameReader.readAll( file ), is( typeNames ) );
+    }
+
+    @Test
+    public void lineEndingsTest() throws IOException {
+        StringBuilder longName = new StringBuilder( "Map<" );
+        for ( int i = 0; i < 100; i++ ) {
+            longName.append( "Key" ).append( i ).append( ',' );
+        }
+        longName.append( "Value>" );
+        Path file = write( "String\r\n\r\n" + longName + "\nList<String>" );
+
+        List<TypeName> typeNames = new ArrayList<>();
+        TypeNameReader.read( file, typeNames::add, 16 );
+
+        assertThat( "unexpected type names", typeNames, contains( 
+                new TypeName( "String" ), 
+                new TypeName( longName.toString() ), 
+                new TypeName( "List<String>" ) ) );
+    }
+
+    @Test
+    public void arenaTest() throws IOException {
+        Path file = write( "List<String>\nString\nMap<String,Integer>\n" );
+        TypeNameArena arena = new TypeNameArena();
+
+        int[] nodes = TypeNameReader.readInto( file, arena );
+
+        assertThat( "unexpected count", nodes.length, is( 3 ) );
+        assertThat( "unexpected type name", arena.toTypeName( nodes[ 1 ] ), is( new TypeName( "String" ) ) );
+        assertThat( "unexpected type name", 
+                arena.toTypeName( nodes[ 2 ] ), is( new TypeName( "Map<String,Integer>" ) ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void malformedLineTest() throws IOException {
+        TypeNameReader.readAll( write( "String\nList<>\n" ) );
+    }
+
+    private Path write( String content ) throws IOException {
+        Path file = this.folder.newFile().toPath();
+        Files.write( file, content.getBytes( StandardCharsets.UTF_8 ) );
+        return file;
+    }
+}
@@ -17,6 +17,7 @@ package uk.ac.open.crc.idtk;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 
 /**
@@ -142,4 +143,189 @@ public class TypeNameTest {
                 "org.foo.bar".equals(  tn.packageName() ) );
     }
     
+    @Test
+    public void structuralEqualityTest() {
+        TypeName first = new TypeName( "java.util.Map<String,java.util.List<Integer>>[]" );
+        TypeName second = new TypeName( "java.util.Map<String, java.util.List<Integer>>[]" );
+        TypeName different = new TypeName( "java.util.Map<String,java.util.List<Long>>[]" );
+        TypeName fewerDimensions = new TypeName( "java.util.Map<String,java.util.List<Integer>>" );
+
+        assertTrue( "equal type names not equal", first.equals( second ) );
+        assertTrue( "equal type names with different hash codes", first.hashCode() == second.hashCode() );
+        assertFalse( "different type arguments found equal", first.equals( different ) );
+        assertFalse( "different array dimensions found equal", first.equals( fewerDimensions ) );
+        assertTrue( "no type not equal to itself", 
+                new TypeName( TypeName.NO_TYPE ).equals( new TypeName( TypeName.NO_TYPE ) ) );
+    }
+
+    @Test
+    public void canonicalInstanceTest() {
+        TypeName first = TypeName.of( "Map<String,List<String>>" );
+        TypeName second = TypeName.of( "Map<String,List<String>>" );
+        TypeName other = TypeName.of( "Set<List<String>>" );
+
+        assertTrue( "canonical instance not shared", first == second );
+        assertTrue( "canonical instance not equal to parsed instance", 
+                first.equals( new TypeName( "Map<String,List<String>>" ) ) );
+        assertTrue( "type argument not shared within type name", 
+                first.parameterisedTypes().get( 0 ) 
+                        == first.parameterisedTypes().get( 1 ).parameterisedTypes().get( 0 ) );
+        assertTrue( "type argument not shared between type names", 
+                first.parameterisedTypes().get( 1 ) == other.parameterisedTypes().get( 0 ) );
+        assertTrue( "type argument not shared with top level type name", 
+                TypeName.of( "String" ) == first.parameterisedTypes().get( 0 ) );
+    }
+
+    @Test
+    public void lazyTypeNameTest() {
+        String typeNameString = "java.util.Map<String,java.util.List<Integer>>[]";
+        TypeName lazy = TypeName.lazy( typeNameString );
+        TypeName eager = new TypeName( typeNameString );
+
+        assertTrue( "unexpected identifier name", "Map".equals( lazy.identifierName() ) );
+        assertTrue( "unexpected array dimensions", lazy.arrayDimensions() == 1 );
+        assertTrue( "unexpected package name", "java.util".equals( lazy.packageName() ) );
+        assertTrue( "unexpected acronym", "m".equals( lazy.typeAcronym() ) );
+        assertTrue( "unexpected type arguments", 
+                eager.parameterisedTypes().equals( lazy.parameterisedTypes() ) );
+        assertTrue( "lazy type name not equal to eager type name", lazy.equals( eager ) );
+        assertTrue( "lazy type name hash differs", lazy.hashCode() == eager.hashCode() );
+        assertTrue( "unevaluated lazy type names not equal", 
+                TypeName.lazy( typeNameString ).equals( TypeName.lazy( typeNameString ) ) );
+    }
+
+    @Test
+    public void typeArgumentTraversalTest() {
+        TypeName typeName = new TypeName( "Map<String,List<Integer>>[][]" );
+
+        assertTrue( "unexpected parameter count", typeName.parameterCount() == 2 );
+        assertTrue( "unexpected parameter", 
+                "String".equals( typeName.parameterAt( 0 ).identifierName() ) );
+        assertTrue( "view differs from copy", 
+                typeName.parameterisedTypes().equals( typeName.parameterisedTypesView() ) );
+        assertTrue( "view not shared", 
+                typeName.parameterisedTypesView() == typeName.parameterisedTypesView() );
+        assertTrue( "no type has parameters", 
+                new TypeName( TypeName.NO_TYPE ).parameterCount() == 0 );
+
+        StringBuilder walk = new StringBuilder();
+        typeName.accept( ( visited, depth ) -> {
+            walk.append( visited.identifierName() )
+                    .append( ':' ).append( depth )
+                    .append( ':' ).append( visited.arrayDimensions() ).append( ' ' );
+            return ! "List".equals( visited.identifierName() );
+        } );
+        assertTrue( "unexpected walk " + walk, 
+                "Map:0:2 String:1:0 List:1:0 ".equals( walk.toString() ) );
+    }
+
+    @Test
+    public void arrayTypeArgumentTraversalTest() {
+        TypeName typeName = TypeName.fromSignature( "[Ljava/util/Map<Ljava/lang/String;[[I>;" );
+
+        StringBuilder walk = new StringBuilder();
+        typeName.accept( ( visited, depth ) -> {
+            walk.append( visited.identifierName() )
+                    .append( ':' ).append( visited.arrayDimensions() ).append( ' ' );
+            return true;
+        } );
+        assertTrue( "unexpected walk " + walk, 
+                "Map:1 String:0 int:2 ".equals( walk.toString() ) );
+    }
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void unmodifiableViewTest() {
+        new TypeName( "Map<String,Integer>" ).parameterisedTypesView().clear();
+    }
+
+    @Test
+    public void descriptorTest() {
+        TypeName strings = TypeName.fromDescriptor( "[[Ljava/lang/String;" );
+        TypeName entry = TypeName.fromDescriptor( "Ljava/util/Map$Entry;" );
+        TypeName ints = TypeName.fromDescriptor( "[I" );
+
+        assertTrue( "descriptor differs from source", 
+                strings.equals( new TypeName( "java.lang.String[][]" ) ) );
+        assertTrue( "unexpected identifier name", "Entry".equals( entry.identifierName() ) );
+        assertTrue( "unexpected package name", "java.util".equals( entry.packageName() ) );
+        assertTrue( "unexpected fqn", "java.util.Map.Entry".equals( entry.fqn() ) );
+        assertTrue( "unexpected primitive", 
+                "int".equals( ints.identifierName() ) && ints.arrayDimensions() == 1 );
+        assertTrue( "default package lost", 
+                "Foo".equals( TypeName.fromDescriptor( "LFoo;" ).fqn() ) );
+    }
+
+    @Test
+    public void signatureTest() {
+        TypeName map = TypeName.fromSignature( 
+                "Ljava/util/Map<Ljava/lang/String;Ljava/util/List<Ljava/lang/Integer;>;>;" );
+        TypeName wildcards = TypeName.fromSignature( 
+                "Ljava/util/Map<*+Ljava/lang/Number;>;" );
+        TypeName inner = TypeName.fromSignature( "Lpkg/Outer<TK;>.Inner<[I>;" );
+
+        assertTrue( "signature differs from source", map.equals( 
+                new TypeName( "java.util.Map<java.lang.String,java.util.List<java.lang.Integer>>" ) ) );
+        assertTrue( "unexpected wildcard", 
+                "?".equals( wildcards.parameterAt( 0 ).identifierName() ) );
+        assertTrue( "unexpected bound", 
+                "java.lang.Number".equals( wildcards.parameterAt( 1 ).fqn() ) );
+        assertTrue( "unexpected inner class", "pkg.Outer.Inner".equals( inner.fqn() ) );
+        assertTrue( "unexpected array type argument", 
+                inner.parameterCount() == 1 && inner.parameterAt( 0 ).arrayDimensions() == 1 );
+        assertTrue( "unexpected type variable", 
+                "T".equals( TypeName.fromSignature( "[TT;" ).identifierName() ) );
+    }
+
+    @Test
+    public void malformedDescriptorTest() {
+        String[] malformed = { "", "L;", "Ljava/lang/String", "Q", "[", "TT;", 
+            "Ljava/util/List<Ljava/lang/String;>;", "II", "Lfoo/;", "V", "[V" };
+        for ( String descriptor : malformed ) {
+            try {
+                TypeName.fromDescriptor( descriptor );
+                fail( "malformed descriptor accepted: " + descriptor );
+            }
+            catch ( IllegalArgumentException e ) {
+                // expected
+            }
+        }
+        try {
+            TypeName.fromSignature( "Ljava/util/List<>;" );
+            fail( "empty type arguments accepted" );
+        }
+        catch ( IllegalArgumentException e ) {
+            // expected
+        }
+        for ( String signature : new String[] { "V", "[V", "Ljava/util/List<V>;" } ) {
+            try {
+                TypeName.fromSignature( signature );
+                fail( "void accepted as a field type: " + signature );
+            }
+            catch ( IllegalArgumentException e ) {
+                // expected
+            }
+        }
+    }
+
+    // a field for reflectedTypeTest
+    private java.util.Map<String, java.util.List<? extends Number>>[] reflected;
+
+    @Test
+    public void reflectedTypeTest() throws NoSuchFieldException {
+        TypeName field = TypeName.from( 
+                TypeNameTest.class.getDeclaredField( "reflected" ).getGenericType() );
+
+        assertTrue( "reflected type differs from signature", field.equals( TypeName.fromSignature( 
+                "[Ljava/util/Map<Ljava/lang/String;Ljava/util/List<+Ljava/lang/Number;>;>;" ) ) );
+        assertTrue( "reflected class differs from descriptor", 
+                TypeName.from( java.util.Map.Entry.class ).equals( 
+                        TypeName.fromDescriptor( "Ljava/util/Map$Entry;" ) ) );
+        assertTrue( "reflected array differs from descriptor", 
+                TypeName.from( int[][].class ).equals( TypeName.fromDescriptor( "[[I" ) ) );
+        assertTrue( "class type name not cached", 
+                TypeName.from( String.class ) == TypeName.from( String.class ) );
+        assertTrue( "unexpected type variable", "E".equals( 
+                TypeName.from( java.util.List.class.getTypeParameters()[ 0 ] ).identifierName() ) );
+    }
+    
 }